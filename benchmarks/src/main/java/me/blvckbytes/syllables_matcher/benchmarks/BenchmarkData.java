@@ -0,0 +1,143 @@
+package me.blvckbytes.syllables_matcher.benchmarks;
+
+import me.blvckbytes.syllables_matcher.MatchableEnum;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public final class BenchmarkData {
+
+  public record SyntheticConstant(String name) implements MatchableEnum {}
+
+  private static final String[] MATERIAL_PREFIXES = {
+    "OAK", "SPRUCE", "BIRCH", "JUNGLE", "ACACIA", "DARK_OAK", "MANGROVE", "CHERRY", "BAMBOO", "CRIMSON",
+    "WARPED", "STONE", "COBBLESTONE", "MOSSY_COBBLESTONE", "GRANITE", "POLISHED_GRANITE", "DIORITE",
+    "POLISHED_DIORITE", "ANDESITE", "POLISHED_ANDESITE", "DEEPSLATE", "COBBLED_DEEPSLATE", "BLACKSTONE",
+    "POLISHED_BLACKSTONE", "SANDSTONE", "RED_SANDSTONE", "BRICK", "NETHER_BRICK", "RED_NETHER_BRICK",
+    "QUARTZ", "PRISMARINE", "DARK_PRISMARINE", "PURPUR", "END_STONE_BRICK", "MUD_BRICK", "TUFF",
+    "WHITE", "ORANGE", "MAGENTA", "LIGHT_BLUE", "YELLOW", "LIME", "PINK", "GRAY", "LIGHT_GRAY", "CYAN",
+    "PURPLE", "BLUE", "BROWN", "GREEN", "RED", "BLACK", "IRON", "GOLDEN", "DIAMOND", "NETHERITE",
+    "COPPER", "EXPOSED_COPPER", "WEATHERED_COPPER", "OXIDIZED_COPPER", "WAXED_COPPER", "CHAINMAIL",
+  };
+
+  private static final String[] MATERIAL_SUFFIXES = {
+    "PLANKS", "LOG", "WOOD", "STAIRS", "SLAB", "WALL", "FENCE", "FENCE_GATE", "DOOR", "TRAPDOOR",
+    "BUTTON", "PRESSURE_PLATE", "SIGN", "HANGING_SIGN", "BOAT", "CHEST_BOAT", "WOOL", "CARPET",
+    "TERRACOTTA", "GLAZED_TERRACOTTA", "CONCRETE", "CONCRETE_POWDER", "STAINED_GLASS",
+  };
+
+  private static final String[] EQUIPMENT_SUFFIXES = {
+    "SWORD", "SHOVEL", "PICKAXE", "AXE", "HOE", "HELMET", "CHESTPLATE", "LEGGINGS", "BOOTS", "HORSE_ARMOR",
+  };
+
+  private static final String[] WORDS = {
+    "the", "quick", "brown", "fox", "jumps", "over", "lazy", "dog", "diamond", "sword", "golden", "apple",
+    "redstone", "torch", "enchanted", "book", "netherite", "ingot", "village", "trading", "hall", "castle",
+    "dragon", "egg", "beacon", "portal", "obsidian", "emerald", "block", "shulker", "box", "elytra",
+  };
+
+  private static final String[] ACCENTED_WORDS = {
+    "épée", "pêche", "émeraude", "bâton", "façade", "hêtre", "cœur", "frühling", "äpfel", "größe",
+    "señal", "niño", "pingüino", "ação", "coração", "über", "ñandú", "crème", "brûlée", "naïve",
+  };
+
+  private static final String[] COLOR_CODES = {
+    "§a", "§b", "§c", "§d", "§e", "§f", "§0", "§1", "§2", "§3", "§l", "§o", "§r",
+  };
+
+  private BenchmarkData() {}
+
+  /**
+   * Roughly the size of a server's material enum: all block-variant and
+   * equipment combinations, yielding well over 1500 constants.
+   */
+  public static List<SyntheticConstant> makeMaterialConstants() {
+    var result = new ArrayList<SyntheticConstant>();
+
+    for (var prefix : MATERIAL_PREFIXES) {
+      for (var suffix : MATERIAL_SUFFIXES)
+        result.add(new SyntheticConstant(prefix + "_" + suffix));
+    }
+
+    for (var prefix : MATERIAL_PREFIXES) {
+      for (var suffix : EQUIPMENT_SUFFIXES)
+        result.add(new SyntheticConstant(prefix + "_" + suffix));
+    }
+
+    return result;
+  }
+
+  /**
+   * Made-up words of four to seven letters, every fifth of which is paired with a negated
+   * second word, similar to a moderation-list; some words of the text are mixed in as well.
+   */
+  public static List<String> makeBlockedWordQueries(int numberOfQueries, char delimiter, long seed) {
+    var random = new Random(seed);
+    var result = new ArrayList<String>();
+
+    for (var queryIndex = 0; queryIndex < numberOfQueries; ++queryIndex) {
+      var query = queryIndex % 25 == 0 ? WORDS[random.nextInt(WORDS.length)] : makeWord(random);
+
+      if (queryIndex % 5 == 0)
+        query += delimiter + "!" + makeWord(random);
+
+      result.add(query);
+    }
+
+    return result;
+  }
+
+  private static String makeWord(Random random) {
+    var result = new StringBuilder();
+
+    for (var length = random.nextInt(4, 8); length > 0; --length)
+      result.append((char) ('a' + random.nextInt(26)));
+
+    return result.toString();
+  }
+
+  public static String makeAsciiText(int numberOfWords, char delimiter, long seed) {
+    return makeText(WORDS, numberOfWords, delimiter, false, seed);
+  }
+
+  public static String makeAccentedText(int numberOfWords, char delimiter, long seed) {
+    return makeText(ACCENTED_WORDS, numberOfWords, delimiter, false, seed);
+  }
+
+  /**
+   * Rainbow-style text, where every single character is preceded by a color-sequence
+   * and every few characters by an additional hex-sequence, similar to Mini-Message output.
+   */
+  public static String makeColoredText(int numberOfWords, char delimiter, long seed) {
+    return makeText(WORDS, numberOfWords, delimiter, true, seed);
+  }
+
+  private static String makeText(String[] words, int numberOfWords, char delimiter, boolean colored, long seed) {
+    var random = new Random(seed);
+    var result = new StringBuilder();
+
+    for (var wordIndex = 0; wordIndex < numberOfWords; ++wordIndex) {
+      if (wordIndex != 0)
+        result.append(delimiter);
+
+      var word = words[random.nextInt(words.length)];
+
+      if (!colored) {
+        result.append(word);
+        continue;
+      }
+
+      for (var charIndex = 0; charIndex < word.length(); ++charIndex) {
+        if (charIndex % 4 == 0)
+          result.append("§x§F§F§0§0§").append((char) ('0' + random.nextInt(10))).append("§F");
+        else
+          result.append(COLOR_CODES[random.nextInt(COLOR_CODES.length)]);
+
+        result.append(word.charAt(charIndex));
+      }
+    }
+
+    return result.toString();
+  }
+}
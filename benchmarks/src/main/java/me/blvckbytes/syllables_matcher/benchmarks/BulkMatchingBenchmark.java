@@ -0,0 +1,65 @@
+package me.blvckbytes.syllables_matcher.benchmarks;
+
+import me.blvckbytes.syllables_matcher.OffHeapCorpus;
+import me.blvckbytes.syllables_matcher.OffHeapCorpusMatcher;
+import me.blvckbytes.syllables_matcher.Syllables;
+import me.blvckbytes.syllables_matcher.SyllablesMatcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+
+/*
+  One query against an item-catalog of item-names, as in filtering or searching items.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkMatchingBenchmark {
+
+  @Param({ "dia-sw", "oak", "!oak-sign" })
+  public String input;
+
+  private Syllables query;
+  private Syllables[] targets;
+  private SyllablesMatcher matcher;
+  private OffHeapCorpusMatcher corpusMatcher;
+
+  @Setup
+  public void setup() {
+    var constants = BenchmarkData.makeMaterialConstants();
+
+    targets = new Syllables[constants.size()];
+
+    var corpus = new OffHeapCorpus();
+
+    for (var constantIndex = 0; constantIndex < targets.length; ++constantIndex) {
+      var name = constants.get(constantIndex).name().replace('_', '-');
+      targets[constantIndex] = Syllables.forString(name, Syllables.DELIMITER_SEARCH_PATTERN).freeze();
+      corpus.add(name, Syllables.DELIMITER_SEARCH_PATTERN);
+    }
+
+    corpusMatcher = new OffHeapCorpusMatcher(corpus);
+
+    query = Syllables.forString(input, Syllables.DELIMITER_SEARCH_PATTERN);
+    matcher = new SyllablesMatcher();
+  }
+
+  @Benchmark
+  public BitSet matchTargets() {
+    return matcher.matchTargets(query, targets, 0);
+  }
+
+  @Benchmark
+  public BitSet matchTargetsFirstTen() {
+    return matcher.matchTargets(query, targets, 10);
+  }
+
+  @Benchmark
+  public BitSet matchOffHeapEntries() {
+    return corpusMatcher.matchEntries(query, 0);
+  }
+}
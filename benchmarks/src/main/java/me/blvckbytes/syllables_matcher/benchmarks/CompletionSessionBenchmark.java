@@ -0,0 +1,64 @@
+package me.blvckbytes.syllables_matcher.benchmarks;
+
+import me.blvckbytes.syllables_matcher.CompletionSession;
+import me.blvckbytes.syllables_matcher.EnumMatcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/*
+  Simulates a player typing out an input keystroke by keystroke, comparing a session,
+  which narrows down on the previous keystroke's survivors, against independent queries.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompletionSessionBenchmark {
+
+  @Param({ "diamond-sword", "pol-bla-sta" })
+  public String typedInput;
+
+  @Param({ "false", "true" })
+  public boolean indexed;
+
+  private EnumMatcher<BenchmarkData.SyntheticConstant> matcher;
+  private CompletionSession<BenchmarkData.SyntheticConstant> session;
+  private final ArrayList<String> output = new ArrayList<>();
+
+  @Setup
+  public void setup() {
+    matcher = new EnumMatcher<>(BenchmarkData.makeMaterialConstants(), indexed);
+    session = matcher.createCompletionSession();
+  }
+
+  @Benchmark
+  public int typeWithSession() {
+    var total = 0;
+
+    for (var length = 1; length <= typedInput.length(); ++length) {
+      output.clear();
+      session.addCompletions(typedInput.substring(0, length), null, null, output);
+      total += output.size();
+    }
+
+    session.reset();
+    return total;
+  }
+
+  @Benchmark
+  public int typeWithoutSession() {
+    var total = 0;
+
+    for (var length = 1; length <= typedInput.length(); ++length) {
+      output.clear();
+      matcher.addCompletions(typedInput.substring(0, length), null, null, null, output);
+      total += output.size();
+    }
+
+    return total;
+  }
+}
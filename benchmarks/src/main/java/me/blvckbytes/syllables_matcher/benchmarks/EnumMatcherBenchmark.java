@@ -0,0 +1,67 @@
+package me.blvckbytes.syllables_matcher.benchmarks;
+
+import me.blvckbytes.syllables_matcher.EnumMatcher;
+import me.blvckbytes.syllables_matcher.NormalizedConstant;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnumMatcherBenchmark {
+
+  /*
+    Keystroke-like inputs: a single character, a common prefix, multiple syllables,
+    a negation, wildcards, an accented input as well as one which does not match at all.
+   */
+  @Param({ "d", "dia", "dia-sw", "oak-!sign", "sign-?-?", "épée", "xyz-qwe" })
+  public String input;
+
+  @Param({ "false", "true" })
+  public boolean indexed;
+
+  @Param({ "0", "2" })
+  public int maximumEditDistance;
+
+  private EnumMatcher<BenchmarkData.SyntheticConstant> matcher;
+
+  @State(Scope.Thread)
+  public static class ReusedOutput {
+    final ArrayList<String> completions = new ArrayList<>();
+  }
+
+  @Setup
+  public void setup() {
+    matcher = new EnumMatcher<>(BenchmarkData.makeMaterialConstants(), indexed);
+    matcher.setMaximumEditDistance(maximumEditDistance);
+  }
+
+  @Benchmark
+  public List<String> createCompletions() {
+    return matcher.createCompletions(input);
+  }
+
+  @Benchmark
+  public int addCompletions(ReusedOutput output) {
+    output.completions.clear();
+    matcher.addCompletions(input, null, null, null, output.completions);
+    return output.completions.size();
+  }
+
+  // Roughly the number of completions a client displays at once
+  @Benchmark
+  public List<String> createRankedCompletions() {
+    return matcher.createRankedCompletions(input, 10);
+  }
+
+  @Benchmark
+  public NormalizedConstant<BenchmarkData.SyntheticConstant> matchFirst() {
+    return matcher.matchFirst(input);
+  }
+}
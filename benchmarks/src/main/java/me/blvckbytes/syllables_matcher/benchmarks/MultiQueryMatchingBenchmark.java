@@ -0,0 +1,86 @@
+package me.blvckbytes.syllables_matcher.benchmarks;
+
+import me.blvckbytes.syllables_matcher.MultiQueryMatcher;
+import me.blvckbytes.syllables_matcher.Syllables;
+import me.blvckbytes.syllables_matcher.SyllablesMatcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+
+/*
+  A moderation-list of blocked words against a single message, as in chat-filtering.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MultiQueryMatchingBenchmark {
+
+  public enum Message {
+    CHAT_MESSAGE,
+    BOOK_PAGE,
+    BOOK_PAGE_COLORED,
+  }
+
+  @Param
+  public Message message;
+
+  @Param({ "300" })
+  public int numberOfQueries;
+
+  private Syllables[] queries;
+  private Syllables target;
+
+  private SyllablesMatcher singleQueryMatcher;
+  private MultiQueryMatcher multiQueryMatcher;
+  private final BitSet output = new BitSet();
+
+  @Setup
+  public void setup() {
+    var queryInputs = BenchmarkData.makeBlockedWordQueries(numberOfQueries, Syllables.DELIMITER_FREE_TEXT, 1);
+    var queryList = new ArrayList<Syllables>();
+
+    for (var queryInput : queryInputs)
+      queryList.add(Syllables.forString(queryInput, Syllables.DELIMITER_FREE_TEXT).freeze());
+
+    queries = queryList.toArray(Syllables[]::new);
+
+    var text = switch (message) {
+      case CHAT_MESSAGE -> BenchmarkData.makeAsciiText(15, Syllables.DELIMITER_FREE_TEXT, 1);
+      case BOOK_PAGE -> BenchmarkData.makeAsciiText(170, Syllables.DELIMITER_FREE_TEXT, 1);
+      case BOOK_PAGE_COLORED -> BenchmarkData.makeColoredText(170, Syllables.DELIMITER_FREE_TEXT, 1);
+    };
+
+    target = Syllables.forString(text, Syllables.DELIMITER_FREE_TEXT).freeze();
+
+    singleQueryMatcher = new SyllablesMatcher();
+    multiQueryMatcher = new MultiQueryMatcher(queries);
+  }
+
+  @Benchmark
+  public BitSet matchEachQuery() {
+    output.clear();
+
+    for (var queryIndex = 0; queryIndex < queries.length; ++queryIndex) {
+      singleQueryMatcher.setQuery(queries[queryIndex]);
+      singleQueryMatcher.resetQueryMatches();
+      singleQueryMatcher.setTarget(target);
+      singleQueryMatcher.match();
+
+      if (!singleQueryMatcher.hasUnmatchedQuerySyllables())
+        output.set(queryIndex);
+    }
+
+    return output;
+  }
+
+  @Benchmark
+  public BitSet matchAllQueries() {
+    multiQueryMatcher.match(target, output);
+    return output;
+  }
+}
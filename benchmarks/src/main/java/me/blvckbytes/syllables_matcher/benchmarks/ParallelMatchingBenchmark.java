@@ -0,0 +1,49 @@
+package me.blvckbytes.syllables_matcher.benchmarks;
+
+import me.blvckbytes.syllables_matcher.ParallelSyllablesMatcher;
+import me.blvckbytes.syllables_matcher.Syllables;
+import me.blvckbytes.syllables_matcher.SyllablesMatcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+
+/*
+  Searching hundreds of thousands of stored names, like signs, books and items.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelMatchingBenchmark {
+
+  @Param({ "200000" })
+  public int numberOfTargets;
+
+  private Syllables query;
+  private Syllables[] targets;
+  private ParallelSyllablesMatcher parallelMatcher;
+
+  @Setup
+  public void setup() {
+    targets = new Syllables[numberOfTargets];
+
+    for (var targetIndex = 0; targetIndex < numberOfTargets; ++targetIndex)
+      targets[targetIndex] = Syllables.forString(BenchmarkData.makeAsciiText(4, Syllables.DELIMITER_FREE_TEXT, targetIndex), Syllables.DELIMITER_FREE_TEXT).freeze();
+
+    query = Syllables.forString("dragon egg", Syllables.DELIMITER_FREE_TEXT);
+    parallelMatcher = new ParallelSyllablesMatcher();
+  }
+
+  @Benchmark
+  public BitSet sequential() {
+    return new SyllablesMatcher().matchTargets(query, targets, 0);
+  }
+
+  @Benchmark
+  public BitSet parallel() {
+    return parallelMatcher.matchTargets(query, targets);
+  }
+}
@@ -0,0 +1,79 @@
+package me.blvckbytes.syllables_matcher.benchmarks;
+
+import me.blvckbytes.syllables_matcher.Syllables;
+import me.blvckbytes.syllables_matcher.SyllablesMatcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SyllablesMatcherBenchmark {
+
+  public enum Scenario {
+    SHORT_TARGET,
+    SHORT_ACCENTED_TARGET,
+    BOOK_PAGE,
+    BOOK_PAGE_ACCENTED,
+    BOOK_PAGE_COLORED,
+    BOOK_PAGE_MISS,
+    BOOK_PAGE_COLORED_MISS,
+  }
+
+  @Param
+  public Scenario scenario;
+
+  private SyllablesMatcher matcher;
+  private Syllables query;
+  private Syllables target;
+
+  @Setup
+  public void setup() {
+    switch (scenario) {
+      case SHORT_TARGET -> {
+        query = Syllables.forString("dia-swo", Syllables.DELIMITER_SEARCH_PATTERN);
+        target = Syllables.forString("Diamond-Sword", Syllables.DELIMITER_SEARCH_PATTERN);
+      }
+      case SHORT_ACCENTED_TARGET -> {
+        query = Syllables.forString("epe-neth", Syllables.DELIMITER_SEARCH_PATTERN);
+        target = Syllables.forString("Épée-en-Nethérite", Syllables.DELIMITER_SEARCH_PATTERN);
+      }
+      case BOOK_PAGE -> {
+        query = Syllables.forString("dragon egg beacon", Syllables.DELIMITER_FREE_TEXT);
+        target = Syllables.forString(BenchmarkData.makeAsciiText(170, Syllables.DELIMITER_FREE_TEXT, 1), Syllables.DELIMITER_FREE_TEXT);
+      }
+      case BOOK_PAGE_ACCENTED -> {
+        query = Syllables.forString("coeur creme naive", Syllables.DELIMITER_FREE_TEXT);
+        target = Syllables.forString(BenchmarkData.makeAccentedText(170, Syllables.DELIMITER_FREE_TEXT, 1), Syllables.DELIMITER_FREE_TEXT);
+      }
+      case BOOK_PAGE_COLORED -> {
+        query = Syllables.forString("dragon egg beacon", Syllables.DELIMITER_FREE_TEXT);
+        target = Syllables.forString(BenchmarkData.makeColoredText(170, Syllables.DELIMITER_FREE_TEXT, 1), Syllables.DELIMITER_FREE_TEXT);
+      }
+      // Queries which are not contained, as to have every target syllable be scanned
+      case BOOK_PAGE_MISS -> {
+        query = Syllables.forString("dragonfly rotten", Syllables.DELIMITER_FREE_TEXT);
+        target = Syllables.forString(BenchmarkData.makeAsciiText(170, Syllables.DELIMITER_FREE_TEXT, 1), Syllables.DELIMITER_FREE_TEXT);
+      }
+      case BOOK_PAGE_COLORED_MISS -> {
+        query = Syllables.forString("dragonfly rotten", Syllables.DELIMITER_FREE_TEXT);
+        target = Syllables.forString(BenchmarkData.makeColoredText(170, Syllables.DELIMITER_FREE_TEXT, 1), Syllables.DELIMITER_FREE_TEXT);
+      }
+    }
+
+    matcher = new SyllablesMatcher();
+    matcher.setQuery(query);
+  }
+
+  @Benchmark
+  public boolean match() {
+    matcher.resetQueryMatches();
+    matcher.setTarget(target);
+    matcher.match();
+    return matcher.hasUnmatchedQuerySyllables();
+  }
+}
@@ -0,0 +1,77 @@
+package me.blvckbytes.syllables_matcher.benchmarks;
+
+import me.blvckbytes.syllables_matcher.Syllables;
+import me.blvckbytes.syllables_matcher.SyllablesAndCounters;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SyllablesParsingBenchmark {
+
+  public enum InputKind {
+    SHORT_ASCII,
+    SHORT_ACCENTED,
+    BOOK_PAGE_ASCII,
+    BOOK_PAGE_ACCENTED,
+    BOOK_PAGE_COLORED,
+  }
+
+  @Param
+  public InputKind inputKind;
+
+  private String input;
+  private StringBuilder inputBuilder;
+  private char delimiter;
+
+  private final Syllables reusedResult = new Syllables(null);
+
+  @Setup
+  public void setup() {
+    switch (inputKind) {
+      case SHORT_ASCII -> {
+        input = "dia-swo";
+        delimiter = Syllables.DELIMITER_SEARCH_PATTERN;
+      }
+      case SHORT_ACCENTED -> {
+        input = "Épée-en-nethérite";
+        delimiter = Syllables.DELIMITER_SEARCH_PATTERN;
+      }
+      case BOOK_PAGE_ASCII -> {
+        input = BenchmarkData.makeAsciiText(170, Syllables.DELIMITER_FREE_TEXT, 1);
+        delimiter = Syllables.DELIMITER_FREE_TEXT;
+      }
+      case BOOK_PAGE_ACCENTED -> {
+        input = BenchmarkData.makeAccentedText(170, Syllables.DELIMITER_FREE_TEXT, 1);
+        delimiter = Syllables.DELIMITER_FREE_TEXT;
+      }
+      case BOOK_PAGE_COLORED -> {
+        input = BenchmarkData.makeColoredText(170, Syllables.DELIMITER_FREE_TEXT, 1);
+        delimiter = Syllables.DELIMITER_FREE_TEXT;
+      }
+    }
+
+    inputBuilder = new StringBuilder(input);
+  }
+
+  @Benchmark
+  public Syllables forString() {
+    return Syllables.forString(input, delimiter);
+  }
+
+  @Benchmark
+  public SyllablesAndCounters forStringWithWildcardSupport() {
+    return Syllables.forStringWithWildcardSupport(input, delimiter);
+  }
+
+  @Benchmark
+  public Syllables forCharSequenceReused() {
+    Syllables.forCharSequence(inputBuilder, delimiter, reusedResult);
+    return reusedResult;
+  }
+}
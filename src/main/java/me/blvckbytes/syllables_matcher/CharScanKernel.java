@@ -0,0 +1,57 @@
+package me.blvckbytes.syllables_matcher;
+
+/*
+  Searches for the first occurrence of a needle within a region of a haystack, which is the
+  innermost loop of matching a query-syllable against a target-syllable. The scalar kernel is
+  used by default; the vectorized kernel is packaged alongside, but requires the incubating Vector
+  API to be resolved at runtime (--add-modules jdk.incubator.vector) and is only loaded if explicitly
+  enabled by -Dsyllables_matcher.vector_kernel=true, as to be able to compare both on the same workload.
+ */
+interface CharScanKernel {
+
+  String VECTOR_KERNEL_PROPERTY = "syllables_matcher.vector_kernel";
+
+  CharScanKernel SELECTED = select();
+
+  /**
+   * @param fromIndex Inclusive index at which the region of the haystack begins
+   * @param toIndex Exclusive index at which the region of the haystack ends
+   * @return Index within the haystack at which the needle begins, or -1 if it does not occur
+   */
+  int indexOf(char[] haystack, int fromIndex, int toIndex, char[] needle, int needleStart, int needleLength);
+
+  private static CharScanKernel select() {
+    if (!Boolean.getBoolean(VECTOR_KERNEL_PROPERTY))
+      return ScalarCharScanKernel.INSTANCE;
+
+    var vectorKernel = tryLoadVectorKernel();
+
+    if (vectorKernel == null) {
+      System.getLogger(CharScanKernel.class.getName()).log(
+        System.Logger.Level.WARNING,
+        "The vectorized kernel has been enabled, but could not be loaded; is jdk.incubator.vector resolved? Falling back to the scalar kernel."
+      );
+
+      return ScalarCharScanKernel.INSTANCE;
+    }
+
+    return vectorKernel;
+  }
+
+  /**
+   * @return The vectorized kernel, or null if the Vector API is not available on this runtime
+   */
+  static CharScanKernel tryLoadVectorKernel() {
+    if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty())
+      return null;
+
+    // Only link the kernel reflectively, as to never touch the incubating API on runtimes without it
+    try {
+      return (CharScanKernel) Class.forName(CharScanKernel.class.getPackageName() + ".VectorCharScanKernel")
+        .getDeclaredConstructor()
+        .newInstance();
+    } catch (ReflectiveOperationException | LinkageError e) {
+      return null;
+    }
+  }
+}
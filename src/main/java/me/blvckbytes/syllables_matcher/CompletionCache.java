@@ -0,0 +1,71 @@
+package me.blvckbytes.syllables_matcher;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+  Size-bounded LRU-cache of completion-results. Each invalidation bumps the generation,
+  such that results which were computed based on stale state cannot be stored anymore.
+ */
+class CompletionCache {
+
+  record Key(
+    @Nullable String normalizedInput,
+    @Nullable EnumPredicate<?> filter,
+    @Nullable String prefix,
+    @Nullable String suffix
+  ) {}
+
+  private final LinkedHashMap<Key, List<String>> entries;
+  // Guarded by the monitor, just like the entries
+  private long hits;
+  private long misses;
+
+  private long generation;
+
+  CompletionCache(int maximumSize) {
+    if (maximumSize <= 0)
+      throw new IllegalArgumentException("The maximum size has to be positive");
+
+    this.entries = new LinkedHashMap<>(16, .75F, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, List<String>> eldest) {
+        return size() > maximumSize;
+      }
+    };
+  }
+
+  synchronized @Nullable List<String> get(Key key) {
+    var result = entries.get(key);
+
+    if (result == null)
+      ++misses;
+    else
+      ++hits;
+
+    return result;
+  }
+
+  synchronized void put(Key key, List<String> completions, long computedAtGeneration) {
+    if (computedAtGeneration != generation)
+      return;
+
+    entries.put(key, completions);
+  }
+
+  synchronized long getGeneration() {
+    return generation;
+  }
+
+  synchronized void invalidate() {
+    entries.clear();
+    ++generation;
+  }
+
+  synchronized CompletionCacheStatistics getStatistics() {
+    return new CompletionCacheStatistics(hits, misses, entries.size());
+  }
+}
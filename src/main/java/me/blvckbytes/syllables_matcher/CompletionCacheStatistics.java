@@ -0,0 +1,7 @@
+package me.blvckbytes.syllables_matcher;
+
+public record CompletionCacheStatistics(
+  long hits,
+  long misses,
+  int size
+) {}
@@ -0,0 +1,104 @@
+package me.blvckbytes.syllables_matcher;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/*
+  Whenever an input only grows by appended characters, all constants which failed to match the
+  previous input are bound to also fail on the current one, as the syllables preceding the last
+  are left untouched and matching proceeds greedily in query-order; thus, only the previously
+  surviving constants need to be checked. Negations invert this relationship, as extending a
+  negated syllable may very well admit constants which have been rejected before; similarly, extending
+  a wildcard turns it into a literal syllable, thereby lifting its requirement on the constants.
+  This does not hold for typo-tolerant matching though, as longer syllables are allowed more edits.
+ */
+public class CompletionSession<T extends MatchableEnum> {
+
+  private final EnumMatcher<T> enumMatcher;
+  private final @Nullable EnumPredicate<T> filter;
+
+  private int[] survivors;
+  private int numberOfSurvivors;
+
+  private int[] nextSurvivors;
+  private int numberOfNextSurvivors;
+
+  private @Nullable String previousNormalizedInput;
+  private @Nullable ConstantsSnapshot<T> previousSnapshot;
+
+  CompletionSession(EnumMatcher<T> enumMatcher, @Nullable EnumPredicate<T> filter) {
+    this.enumMatcher = enumMatcher;
+    this.filter = filter;
+    this.survivors = new int[enumMatcher.getNumberOfConstants()];
+    this.nextSurvivors = new int[enumMatcher.getNumberOfConstants()];
+  }
+
+  public List<String> createCompletions(@Nullable String input) {
+    return createCompletions(input, null, null);
+  }
+
+  public List<String> createCompletions(@Nullable String input, @Nullable String prefix, @Nullable String suffix) {
+    var result = new ArrayList<String>();
+    addCompletions(input, prefix, suffix, result);
+    return result;
+  }
+
+  public void addCompletions(
+    @Nullable String input,
+    @Nullable String prefix,
+    @Nullable String suffix,
+    Collection<? super String> output
+  ) {
+    var normalizedInput = input == null ? "" : Syllables.normalize(input);
+    // Survivors are constant-indices, which are only meaningful within the snapshot they stem from
+    var snapshot = enumMatcher.getSnapshot();
+
+    var canNarrow = (
+      previousNormalizedInput != null &&
+      previousSnapshot == snapshot &&
+      enumMatcher.getMaximumEditDistance() == 0 &&
+      isRefinement(previousNormalizedInput, normalizedInput)
+    );
+
+    numberOfNextSurvivors = 0;
+
+    enumMatcher.forEachMatch(
+      snapshot, normalizedInput, filter,
+      canNarrow ? survivors : null, numberOfSurvivors, null,
+      (constantIndex, match, matcher) -> {
+        nextSurvivors[numberOfNextSurvivors++] = constantIndex;
+        output.add(EnumMatcher.decorateName(snapshot, constantIndex, prefix, suffix));
+        return true;
+      }
+    );
+
+    var previousSurvivors = survivors;
+
+    survivors = nextSurvivors;
+    numberOfSurvivors = numberOfNextSurvivors;
+    nextSurvivors = previousSurvivors;
+
+    previousNormalizedInput = normalizedInput;
+    previousSnapshot = snapshot;
+  }
+
+  /**
+   * Forgets about the previous input, such that the next one is evaluated from scratch
+   */
+  public void reset() {
+    previousNormalizedInput = null;
+    numberOfSurvivors = 0;
+  }
+
+  private static boolean isRefinement(String previousInput, String currentInput) {
+    return (
+      currentInput.startsWith(previousInput) &&
+      currentInput.indexOf('!') < 0 &&
+      currentInput.indexOf('?') < 0 &&
+      currentInput.indexOf('*') < 0
+    );
+  }
+}
@@ -0,0 +1,88 @@
+package me.blvckbytes.syllables_matcher;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/*
+  Immutable state the queries of an EnumMatcher operate on: the constants in their sorted order,
+  their namings as of when the snapshot has been taken, as well as all structures built from them.
+  Renames build a new snapshot and publish it as a whole, such that queries which started on the
+  previous one finish on it consistently, without ever blocking. Constant-indices are thus only
+  meaningful within the snapshot they stem from.
+ */
+class ConstantsSnapshot<T extends MatchableEnum> {
+
+  // Let's deviate from client sorting, as shortest matches should take precedence.
+  // Otherwise, undesirable scenarios arise.
+  private static final Comparator<NormalizedConstant.Naming> NAMING_ORDER = Comparator
+    .comparingInt((NormalizedConstant.Naming naming) -> naming.normalizedName().length())
+    .thenComparing(NormalizedConstant.Naming::normalizedName);
+
+  final NormalizedConstant<T>[] constants;
+  final NormalizedConstant.Naming[] namings;
+  final @Nullable NGramIndex index;
+
+  // Bitsets of all constants with at least as many syllables as the index, as to prune by wildcards
+  final long[][] minimumSyllableCountMasks;
+
+  // Incremented by each rename
+  final long generation;
+
+  /**
+   * @param constants Constants in their sorted order, see {@link #build(NormalizedConstant[], boolean, long)}
+   */
+  ConstantsSnapshot(NormalizedConstant<T>[] constants, @Nullable NGramIndex index, long generation) {
+    this.constants = constants;
+    this.namings = new NormalizedConstant.Naming[constants.length];
+    this.index = index;
+    this.generation = generation;
+
+    for (var constantIndex = 0; constantIndex < constants.length; ++constantIndex)
+      this.namings[constantIndex] = constants[constantIndex].getNaming();
+
+    this.minimumSyllableCountMasks = buildMinimumSyllableCountMasks(namings);
+  }
+
+  /**
+   * Sorts a copy of the constants by their current namings and builds all structures anew; namings
+   * must not change meanwhile, which is why renames are serialized by the owning matcher
+   */
+  static <T extends MatchableEnum> ConstantsSnapshot<T> build(NormalizedConstant<T>[] constants, boolean indexed, long generation) {
+    var sortedConstants = constants.clone();
+
+    Arrays.sort(sortedConstants, Comparator.comparing(NormalizedConstant::getNaming, NAMING_ORDER));
+
+    NGramIndex index = null;
+
+    if (indexed) {
+      var entries = new Syllables[sortedConstants.length];
+
+      for (var constantIndex = 0; constantIndex < entries.length; ++constantIndex)
+        entries[constantIndex] = sortedConstants[constantIndex].getSyllables();
+
+      index = new NGramIndex(entries);
+    }
+
+    return new ConstantsSnapshot<>(sortedConstants, index, generation);
+  }
+
+  private static long[][] buildMinimumSyllableCountMasks(NormalizedConstant.Naming[] namings) {
+    var maximumSyllableCount = 0;
+
+    for (var naming : namings)
+      maximumSyllableCount = Math.max(maximumSyllableCount, naming.syllables().size());
+
+    var result = new long[maximumSyllableCount + 1][SyllablesMatcher.requiredLongs(namings.length)];
+
+    for (var constantIndex = 0; constantIndex < namings.length; ++constantIndex) {
+      var syllableCount = namings[constantIndex].syllables().size();
+
+      for (var minimumSyllableCount = 0; minimumSyllableCount <= syllableCount; ++minimumSyllableCount)
+        result[minimumSyllableCount][constantIndex / Long.SIZE] |= 1L << (constantIndex % Long.SIZE);
+    }
+
+    return result;
+  }
+}
@@ -0,0 +1,182 @@
+package me.blvckbytes.syllables_matcher;
+
+/*
+  Finds approximate occurrences of a needle within a haystack, i.e. substrings within a bounded
+  Levenshtein-distance, by Myers' bit-parallel algorithm: each column of the dynamic-programming
+  matrix is encoded as vertical deltas within two words, such that advancing by a haystack-character
+  takes a constant number of word-operations, as long as the needle fits into a single word.
+
+  A forward-pass, in which occurrences may begin anywhere, finds the end of the earliest closest
+  occurrence, extended over equally close ends; a backward-pass with the needle reversed, which is
+  anchored at that very end, then finds the shortest beginning which yields the same distance.
+ */
+class EditDistanceScanner {
+
+  static final int MAXIMUM_NEEDLE_LENGTH = Long.SIZE;
+
+  // Bitmasks of the needle-positions a character occurs at; non-ASCII characters are kept aside
+  private final long[] asciiMasks;
+  private final char[] otherChars;
+  private final long[] otherMasks;
+  private int numberOfOtherChars;
+
+  EditDistanceScanner() {
+    this.asciiMasks = new long[128];
+    this.otherChars = new char[MAXIMUM_NEEDLE_LENGTH];
+    this.otherMasks = new long[MAXIMUM_NEEDLE_LENGTH];
+  }
+
+  /**
+   * Short needles would match nearly anything within the maximum distance, thus they're allowed
+   * less than half of their length in edits; needles which are too long are not allowed any.
+   */
+  static int getAllowedDistance(int maximumDistance, int needleLength) {
+    if (maximumDistance == 0 || needleLength > MAXIMUM_NEEDLE_LENGTH)
+      return 0;
+
+    return Math.min(maximumDistance, (needleLength - 1) / 2);
+  }
+
+  /**
+   * @param needleLength At most {@link #MAXIMUM_NEEDLE_LENGTH}
+   * @return <32b begin><32b length> of the occurrence, or -1 if there is none within the maximum distance
+   */
+  long indexOf(char[] haystack, int fromIndex, int toIndex, char[] needle, int needleStart, int needleLength, int maximumDistance) {
+    var lastBit = 1L << (needleLength - 1);
+
+    loadMasks(needle, needleStart, needleLength, false);
+
+    var positiveDeltas = -1L;
+    var negativeDeltas = 0L;
+    var distance = needleLength;
+
+    var closestDistance = maximumDistance;
+    var closestEnd = -1;
+
+    for (var offset = fromIndex; offset < toIndex; ++offset) {
+      var matches = getMask(haystack[offset]);
+      var verticalChanges = matches | negativeDeltas;
+      var horizontalChanges = (((matches & positiveDeltas) + positiveDeltas) ^ positiveDeltas) | matches;
+      var positiveHorizontalDeltas = negativeDeltas | ~(horizontalChanges | positiveDeltas);
+      var negativeHorizontalDeltas = positiveDeltas & horizontalChanges;
+
+      if ((positiveHorizontalDeltas & lastBit) != 0)
+        ++distance;
+      else if ((negativeHorizontalDeltas & lastBit) != 0)
+        --distance;
+
+      // Occurrences may begin anywhere, thus the first row stays at zero
+      positiveHorizontalDeltas <<= 1;
+      negativeHorizontalDeltas <<= 1;
+
+      positiveDeltas = negativeHorizontalDeltas | ~(verticalChanges | positiveHorizontalDeltas);
+      negativeDeltas = positiveHorizontalDeltas & verticalChanges;
+
+      // Extend over equal distances, as to consume as much of the target as possible
+      if (distance <= closestDistance) {
+        closestDistance = distance;
+        closestEnd = offset;
+        continue;
+      }
+
+      // Past the local minimum of the earliest occurrence
+      if (closestEnd >= 0)
+        break;
+    }
+
+    clearMasks(needle, needleStart, needleLength);
+
+    if (closestEnd < 0)
+      return -1;
+
+    loadMasks(needle, needleStart, needleLength, true);
+
+    positiveDeltas = -1L;
+    negativeDeltas = 0L;
+    distance = needleLength;
+
+    // Occurrences span at most as many characters as the needle plus the number of insertions
+    var lowestBegin = Math.max(fromIndex, closestEnd - needleLength - maximumDistance + 1);
+    var begin = lowestBegin;
+
+    for (var offset = closestEnd; offset >= lowestBegin; --offset) {
+      var matches = getMask(haystack[offset]);
+      var verticalChanges = matches | negativeDeltas;
+      var horizontalChanges = (((matches & positiveDeltas) + positiveDeltas) ^ positiveDeltas) | matches;
+      var positiveHorizontalDeltas = negativeDeltas | ~(horizontalChanges | positiveDeltas);
+      var negativeHorizontalDeltas = positiveDeltas & horizontalChanges;
+
+      if ((positiveHorizontalDeltas & lastBit) != 0)
+        ++distance;
+      else if ((negativeHorizontalDeltas & lastBit) != 0)
+        --distance;
+
+      // Anchored at the end, thus the first row grows with each consumed character
+      positiveHorizontalDeltas = (positiveHorizontalDeltas << 1) | 1;
+      negativeHorizontalDeltas <<= 1;
+
+      positiveDeltas = negativeHorizontalDeltas | ~(verticalChanges | positiveHorizontalDeltas);
+      negativeDeltas = positiveHorizontalDeltas & verticalChanges;
+
+      if (distance <= closestDistance) {
+        begin = offset;
+        break;
+      }
+    }
+
+    clearMasks(needle, needleStart, needleLength);
+
+    return ((long) begin) << 32 | (closestEnd - begin + 1);
+  }
+
+  private long getMask(char c) {
+    if (c < asciiMasks.length)
+      return asciiMasks[c];
+
+    for (var otherIndex = 0; otherIndex < numberOfOtherChars; ++otherIndex) {
+      if (otherChars[otherIndex] == c)
+        return otherMasks[otherIndex];
+    }
+
+    return 0;
+  }
+
+  private void loadMasks(char[] needle, int needleStart, int needleLength, boolean reversed) {
+    for (var needleOffset = 0; needleOffset < needleLength; ++needleOffset) {
+      var c = needle[needleStart + needleOffset];
+      var bit = 1L << (reversed ? needleLength - 1 - needleOffset : needleOffset);
+
+      if (c < asciiMasks.length) {
+        asciiMasks[c] |= bit;
+        continue;
+      }
+
+      var otherIndex = 0;
+
+      while (otherIndex < numberOfOtherChars && otherChars[otherIndex] != c)
+        ++otherIndex;
+
+      if (otherIndex == numberOfOtherChars) {
+        otherChars[otherIndex] = c;
+        otherMasks[otherIndex] = 0;
+        ++numberOfOtherChars;
+      }
+
+      otherMasks[otherIndex] |= bit;
+    }
+  }
+
+  /**
+   * Only resets the entries of the needle's characters, as to not clear the whole table for each needle
+   */
+  private void clearMasks(char[] needle, int needleStart, int needleLength) {
+    for (var needleOffset = 0; needleOffset < needleLength; ++needleOffset) {
+      var c = needle[needleStart + needleOffset];
+
+      if (c < asciiMasks.length)
+        asciiMasks[c] = 0;
+    }
+
+    numberOfOtherChars = 0;
+  }
+}
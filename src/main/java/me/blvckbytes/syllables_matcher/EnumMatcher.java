@@ -2,39 +2,307 @@ package me.blvckbytes.syllables_matcher;
 
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.function.Function;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/*
+  Instances are safe to be shared across threads: all state accessed by queries is either
+  immutable after construction or published atomically, and per-query scratch-state is
+  borrowed from a pool, as to not allocate anew in the steady state. Renames are serialized
+  among each other and publish a new snapshot of all constants, see ConstantsSnapshot, thus
+  they may happen concurrently to in-flight queries without either side ever observing torn state.
+ */
 public class EnumMatcher<T extends MatchableEnum> {
 
-  private final NormalizedConstant<T>[] normalizedConstants;
+  // Cancellation is polled once per word of constants, as to keep its cost off the scan
+  private static final int CANCELLATION_POLL_MASK = Long.SIZE - 1;
+
   private final Map<T, NormalizedConstant<T>> normalizedConstantByEnumConstant;
+  private final MatchingContextPool contextPool;
+  private final Map<Object, CompletableFuture<List<String>>> inFlightCompletionByCallerKey;
+
+  private final boolean indexed;
+  private volatile ConstantsSnapshot<T> snapshot;
+  private volatile @Nullable CompletionCache completionCache;
+  private volatile @Nullable MatchingMetrics metrics;
+  private volatile int maximumEditDistance;
+
+  @FunctionalInterface
+  interface MatchHandler<T extends MatchableEnum> {
+
+    /**
+     * @param matcher Holding the state of having matched the constant; null if there was no input
+     * @return Whether to continue with the next match
+     */
+    boolean onMatch(int constantIndex, NormalizedConstant<T> constant, @Nullable SyllablesMatcher matcher);
+
+  }
 
-  @SuppressWarnings("unchecked")
   public EnumMatcher(Collection<T> values) {
-    this.normalizedConstants = new NormalizedConstant[values.size()];
+    this(values, false);
+  }
+
+  /**
+   * @param indexed Whether to build an n-gram index over all constants, as to prune the set of
+   *                candidates before matching; this pays off for enums of a considerable size.
+   */
+  @SuppressWarnings("unchecked")
+  public EnumMatcher(Collection<T> values, boolean indexed) {
+    var normalizedConstants = new NormalizedConstant[values.size()];
     this.normalizedConstantByEnumConstant = new HashMap<>();
+    this.contextPool = new MatchingContextPool();
+    this.inFlightCompletionByCallerKey = new ConcurrentHashMap<>();
+    this.indexed = indexed;
 
     var normalizedConstantsIndex = 0;
 
     for (var enumConstant : values) {
       var normalizedConstant = new NormalizedConstant<>(enumConstant);
+      normalizedConstant.owner = this;
 
-      this.normalizedConstants[normalizedConstantsIndex++] = normalizedConstant;
+      normalizedConstants[normalizedConstantsIndex++] = normalizedConstant;
       this.normalizedConstantByEnumConstant.put(enumConstant, normalizedConstant);
     }
 
-    // Let's deviate from client sorting, as shortest matches should take precedence.
-    // Otherwise, undesirable scenarios arise.
-    Arrays.sort(this.normalizedConstants, Comparator
-      .comparingInt((NormalizedConstant<T> a) -> a.getNormalizedName().length())
-      .thenComparing(NormalizedConstant::getNormalizedName));
+    this.snapshot = ConstantsSnapshot.build(normalizedConstants, indexed, 0);
+  }
+
+  /**
+   * Restores the constants in their sorted order, as well as the index, from a prebuilt file
+   */
+  @SuppressWarnings("unchecked")
+  private EnumMatcher(Collection<T> values, boolean indexed, ByteBuffer prebuilt) {
+    var normalizedConstants = new NormalizedConstant[values.size()];
+    this.normalizedConstantByEnumConstant = new HashMap<>();
+    this.contextPool = new MatchingContextPool();
+    this.inFlightCompletionByCallerKey = new ConcurrentHashMap<>();
+    this.indexed = indexed;
+
+    var enumConstantByName = new HashMap<String, T>();
+
+    for (var enumConstant : values)
+      enumConstantByName.put(enumConstant.name(), enumConstant);
+
+    var numberOfConstants = prebuilt.getInt();
+
+    for (var constantIndex = 0; constantIndex < numberOfConstants; ++constantIndex) {
+      var enumConstant = enumConstantByName.get(PrebuiltFile.getString(prebuilt));
+      var normalizedName = PrebuiltFile.getString(prebuilt);
+
+      var syllables = new Syllables((String) null);
+      syllables.container = PrebuiltFile.getString(prebuilt);
+
+      for (var syllableIndex = prebuilt.getInt(); syllableIndex > 0; --syllableIndex)
+        syllables.add(prebuilt.getInt(), prebuilt.getInt(), false, prebuilt.getLong());
+
+      var normalizedConstant = new NormalizedConstant<>(enumConstant, normalizedName, syllables.freeze());
+      normalizedConstant.owner = this;
+
+      normalizedConstants[constantIndex] = normalizedConstant;
+      this.normalizedConstantByEnumConstant.put(enumConstant, normalizedConstant);
+    }
+
+    this.snapshot = new ConstantsSnapshot<T>(normalizedConstants, indexed ? new NGramIndex(prebuilt) : null, 0);
+  }
+
+  /**
+   * Loads a matcher which has been saved by {@link #save(Path)}, if it has been built from the very same
+   * constants; otherwise, or if there is no such file yet, the matcher is built from scratch and saved, as
+   * to be loaded quickly next time. Loading reads the file and restores the normalized constants, their
+   * syllables and the index onto the heap, which merely saves on normalizing, parsing and indexing again.
+   * Failing to save the rebuilt matcher is not fatal, as the matcher is valid regardless.
+   * @param saveFailureHandler Receives the exception if saving fails, e.g. on read-only directories; ignored if null
+   * @throws IOException If an existing file could not be read
+   */
+  public static <T extends MatchableEnum> EnumMatcher<T> loadOrBuild(
+    Collection<T> values, boolean indexed, Path path,
+    @Nullable Consumer<IOException> saveFailureHandler
+  ) throws IOException {
+    var sourceHash = computeSourceHash(values, indexed);
+    var prebuilt = PrebuiltFile.read(path, PrebuiltFile.KIND_ENUM_MATCHER, sourceHash);
+
+    if (prebuilt != null)
+      return new EnumMatcher<>(values, indexed, prebuilt);
+
+    var result = new EnumMatcher<>(values, indexed);
+
+    try {
+      result.save(path);
+    } catch (IOException e) {
+      if (saveFailureHandler != null)
+        saveFailureHandler.accept(e);
+    }
+
+    return result;
+  }
+
+  /**
+   * See {@link #loadOrBuild(Collection, boolean, Path, Consumer)}, where failures to save are ignored
+   */
+  public static <T extends MatchableEnum> EnumMatcher<T> loadOrBuild(Collection<T> values, boolean indexed, Path path) throws IOException {
+    return loadOrBuild(values, indexed, path, null);
+  }
+
+  /**
+   * Saves the normalized constants, their syllables and the index, as built from the constants' names
+   */
+  public void save(Path path) throws IOException {
+    var snapshot = this.snapshot;
+
+    if (snapshot.generation != 0)
+      throw new IllegalStateException("Cannot save a matcher whose constants have been renamed");
+
+    var index = snapshot.index;
+    var bodyLength = 4 + (index == null ? 0 : index.getSerializedLength());
+
+    for (var constantIndex = 0; constantIndex < snapshot.constants.length; ++constantIndex) {
+      var naming = snapshot.namings[constantIndex];
+
+      bodyLength += PrebuiltFile.getStringLength(snapshot.constants[constantIndex].constant.name());
+      bodyLength += PrebuiltFile.getStringLength(naming.normalizedName());
+      bodyLength += PrebuiltFile.getStringLength(naming.syllables().container);
+      bodyLength += 4 + naming.syllables().size() * 16;
+    }
+
+    var body = ByteBuffer.allocate(bodyLength).order(PrebuiltFile.BYTE_ORDER);
+
+    body.putInt(snapshot.constants.length);
+
+    for (var constantIndex = 0; constantIndex < snapshot.constants.length; ++constantIndex) {
+      var naming = snapshot.namings[constantIndex];
+      var syllables = naming.syllables();
+
+      PrebuiltFile.putString(body, snapshot.constants[constantIndex].constant.name());
+      PrebuiltFile.putString(body, naming.normalizedName());
+      PrebuiltFile.putString(body, syllables.container);
+
+      body.putInt(syllables.size());
+
+      for (var syllableIndex = 0; syllableIndex < syllables.size(); ++syllableIndex) {
+        var syllable = syllables.getSyllable(syllableIndex);
+
+        body.putInt(syllables.getStartIndexOf(syllable));
+        body.putInt(syllables.getEndIndexOf(syllable));
+        body.putLong(syllables.getSignature(syllableIndex));
+      }
+    }
+
+    if (index != null)
+      index.writeTo(body);
+
+    body.flip();
+
+    var sourceHash = computeSourceHash(Arrays.stream(snapshot.constants).map(constant -> constant.constant).toList(), indexed);
+
+    PrebuiltFile.write(path, PrebuiltFile.KIND_ENUM_MATCHER, sourceHash, body);
+  }
+
+  /**
+   * Combines the hashes of all names commutatively, as the order of constants is not retained
+   */
+  private static long computeSourceHash(Collection<? extends MatchableEnum> values, boolean indexed) {
+    var result = PrebuiltFile.hash(PrebuiltFile.hash(PrebuiltFile.initialHash(), values.size()), indexed ? 1 : 0);
+
+    for (var value : values)
+      result += PrebuiltFile.mix(PrebuiltFile.hash(PrebuiltFile.initialHash(), value.name()));
+
+    return result;
   }
 
   public EnumMatcher(T[] values) {
     this(Arrays.asList(values));
   }
 
+  public EnumMatcher(T[] values, boolean indexed) {
+    this(Arrays.asList(values), indexed);
+  }
+
+  /**
+   * Caches completions by their normalized input, filter-identity as well as prefix and suffix,
+   * evicting the least recently used entry once the maximum size has been exceeded. Filters are
+   * compared by identity, thus they should be held in constants and need to be free of state.
+   */
+  public void enableCompletionCache(int maximumSize) {
+    this.completionCache = new CompletionCache(maximumSize);
+  }
+
+  public void disableCompletionCache() {
+    this.completionCache = null;
+  }
+
+  /**
+   * Records measurements of every query into a new recorder, whose snapshots may be exported periodically
+   */
+  public MatchingMetricsRecorder enableMetrics() {
+    var recorder = new MatchingMetricsRecorder();
+    enableMetrics(recorder);
+    return recorder;
+  }
+
+  /**
+   * Hands measurements of every query to the provided metrics; see {@link MatchingMetrics#recordQuery(long, long, long, long, long)}.
+   * Completions served by the cache as well as listings without input are not queries and are thus not recorded.
+   */
+  public void enableMetrics(MatchingMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  public void disableMetrics() {
+    this.metrics = null;
+  }
+
+  /**
+   * Tolerates typos within each query-syllable, see {@link SyllablesMatcher#setMaximumEditDistance(int)}. The
+   * index then prunes by pieces of the syllables, of which at least one has to occur exactly, and the matcher
+   * rejects target-syllables by their characters and lengths, as to not compute distances on all constants.
+   * Ranked completions as well as the first match prefer constants which matched exactly.
+   * @param maximumEditDistance Zero to only match exactly, which is the default
+   */
+  public void setMaximumEditDistance(int maximumEditDistance) {
+    if (maximumEditDistance < 0)
+      throw new IllegalArgumentException("The maximum edit-distance cannot be negative");
+
+    this.maximumEditDistance = maximumEditDistance;
+
+    var cache = this.completionCache;
+
+    if (cache != null)
+      cache.invalidate();
+  }
+
+  public int getMaximumEditDistance() {
+    return maximumEditDistance;
+  }
+
+  public @Nullable CompletionCacheStatistics getCompletionCacheStatistics() {
+    var cache = this.completionCache;
+
+    if (cache == null)
+      return null;
+
+    return cache.getStatistics();
+  }
+
+  /**
+   * Creates a session which narrows down the matches of the previous input whenever the next
+   * input merely appends to it, which is the case while typing; other inputs are evaluated
+   * from scratch. Sessions are to be confined to a single thread, e.g. one per player.
+   */
+  public CompletionSession<T> createCompletionSession() {
+    return createCompletionSession(null);
+  }
+
+  public CompletionSession<T> createCompletionSession(@Nullable EnumPredicate<T> filter) {
+    return new CompletionSession<>(this, filter);
+  }
+
   public String getNormalizedName(T enumConstant) {
     return getNormalizedConstant(enumConstant).getNormalizedName();
   }
@@ -43,6 +311,43 @@ public class EnumMatcher<T extends MatchableEnum> {
     return normalizedConstantByEnumConstant.get(enumConstant);
   }
 
+  /**
+   * Renames all given constants at once, such that queries either observe all or none of the new names;
+   * prefer this over renaming constants one by one, as each rename re-sorts and re-indexes all constants.
+   * Queries which are in flight meanwhile finish on the previous names, without being blocked.
+   */
+  public void setNames(Map<T, String> nameByEnumConstant) {
+    var namingByConstant = new HashMap<NormalizedConstant<T>, NormalizedConstant.Naming>();
+
+    // Parse outside the lock, as to keep concurrent renames from waiting on it
+    for (var entry : nameByEnumConstant.entrySet()) {
+      var normalizedConstant = normalizedConstantByEnumConstant.get(entry.getKey());
+
+      if (normalizedConstant == null)
+        throw new IllegalArgumentException("Constant " + entry.getKey().name() + " is not part of this matcher");
+
+      namingByConstant.put(normalizedConstant, NormalizedConstant.Naming.forName(entry.getValue()));
+    }
+
+    applyNamings(namingByConstant);
+  }
+
+  private synchronized void applyNamings(Map<NormalizedConstant<T>, NormalizedConstant.Naming> namingByConstant) {
+    for (var entry : namingByConstant.entrySet())
+      entry.getKey().setNaming(entry.getValue());
+
+    var previousSnapshot = this.snapshot;
+
+    // Renames are rare enough to not warrant incremental updates
+    this.snapshot = ConstantsSnapshot.build(previousSnapshot.constants, indexed, previousSnapshot.generation + 1);
+
+    // Only invalidate after publishing, such that completions of the previous snapshot cannot be cached anymore
+    var cache = this.completionCache;
+
+    if (cache != null)
+      cache.invalidate();
+  }
+
   public List<String> createCompletions(@Nullable String input) {
     return createCompletions(input, null, null, null);
   }
@@ -57,72 +362,446 @@ public class EnumMatcher<T extends MatchableEnum> {
 
   public List<String> createCompletions(@Nullable String input, @Nullable EnumPredicate<T> filter, String prefix, String suffix) {
     var result = new ArrayList<String>();
+    addCompletions(input, filter, prefix, suffix, result);
+    return result;
+  }
+
+  public CompletableFuture<List<String>> createCompletionsAsync(Object callerKey, @Nullable String input, Executor executor) {
+    return createCompletionsAsync(callerKey, input, null, null, null, executor);
+  }
 
-    forEachMatch(input, filter, match -> {
-      var name = match.getNormalizedName();
+  /**
+   * Creates completions on the provided executor, e.g. one which starts a virtual thread per task, as to keep
+   * the calling thread free. Each request supersedes the in-flight request of the same caller-key, e.g. of the
+   * same player, which is cancelled, as nobody awaits its result anymore; cancelling the returned future has the
+   * same effect. Cancelled requests stop scanning constants shortly after, without completing.
+   * @param callerKey Identifies the caller by equality, as to supersede its previous request
+   */
+  public CompletableFuture<List<String>> createCompletionsAsync(
+    Object callerKey,
+    @Nullable String input,
+    @Nullable EnumPredicate<T> filter,
+    @Nullable String prefix,
+    @Nullable String suffix,
+    Executor executor
+  ) {
+    var request = new CompletableFuture<List<String>>();
+    var supersededRequest = inFlightCompletionByCallerKey.put(callerKey, request);
+
+    if (supersededRequest != null)
+      supersededRequest.cancel(false);
+
+    request.whenComplete((completions, error) -> inFlightCompletionByCallerKey.remove(callerKey, request));
+
+    try {
+      executor.execute(() -> {
+        if (request.isDone())
+          return;
+
+        try {
+          var completions = new ArrayList<String>();
+          addCompletions(input, filter, prefix, suffix, completions, request);
+          request.complete(completions);
+        } catch (Throwable e) {
+          request.completeExceptionally(e);
+        }
+      });
+    } catch (RuntimeException e) {
+      request.completeExceptionally(e);
+    }
 
-      if (prefix != null)
-        name = prefix + name;
+    return request;
+  }
 
-      if (suffix != null)
-        name = name + suffix;
+  /**
+   * Appends all completions to the provided collection, as to allow for the reuse of result-containers
+   */
+  public void addCompletions(
+    @Nullable String input,
+    @Nullable EnumPredicate<T> filter,
+    @Nullable String prefix,
+    @Nullable String suffix,
+    Collection<? super String> output
+  ) {
+    addCompletions(input, filter, prefix, suffix, output, null);
+  }
 
-      result.add(name);
+  private void addCompletions(
+    @Nullable String input,
+    @Nullable EnumPredicate<T> filter,
+    @Nullable String prefix,
+    @Nullable String suffix,
+    Collection<? super String> output,
+    @Nullable Future<?> cancellation
+  ) {
+    var cache = this.completionCache;
+
+    if (cache == null) {
+      forEachCompletion(input, filter, prefix, suffix, output, cancellation);
+      return;
+    }
+
+    var key = new CompletionCache.Key(input == null ? null : Syllables.normalize(input), filter, prefix, suffix);
+    var cachedCompletions = cache.get(key);
+
+    if (cachedCompletions != null) {
+      output.addAll(cachedCompletions);
+      return;
+    }
+
+    var generation = cache.getGeneration();
+    var completions = new ArrayList<String>();
+
+    forEachCompletion(input, filter, prefix, suffix, completions, cancellation);
+
+    // Completions of cancelled requests are partial and thus must not be cached
+    if (cancellation != null && cancellation.isCancelled())
+      return;
+
+    cache.put(key, Collections.unmodifiableList(completions), generation);
+    output.addAll(completions);
+  }
+
+  private void forEachCompletion(
+    @Nullable String input,
+    @Nullable EnumPredicate<T> filter,
+    @Nullable String prefix,
+    @Nullable String suffix,
+    Collection<? super String> output,
+    @Nullable Future<?> cancellation
+  ) {
+    var snapshot = this.snapshot;
+
+    forEachMatch(snapshot, input, filter, null, 0, cancellation, (constantIndex, match, matcher) -> {
+      output.add(decorateName(snapshot, constantIndex, prefix, suffix));
+      return true;
+    });
+  }
+
+  public List<String> createRankedCompletions(@Nullable String input, int limit) {
+    return createRankedCompletions(input, null, null, null, limit);
+  }
+
+  /**
+   * Ranks all matches by how well they have been matched, best first, and only yields the top ones; see
+   * {@link SyllablesMatcher#computeMatchScore()} for the criteria. Equally ranked matches retain the
+   * default order. Only the top matches are ever retained, thus neither all of them are decorated nor sorted.
+   * @param limit Maximum number of completions to yield
+   */
+  public List<String> createRankedCompletions(
+    @Nullable String input,
+    @Nullable EnumPredicate<T> filter,
+    @Nullable String prefix,
+    @Nullable String suffix,
+    int limit
+  ) {
+    if (limit <= 0)
+      return new ArrayList<>();
+
+    var snapshot = this.snapshot;
+    var capacity = Math.min(limit, snapshot.constants.length);
+    var selection = new RankedSelection(capacity);
+
+    forEachMatch(snapshot, input, filter, null, 0, null, (constantIndex, match, matcher) -> {
+      selection.offer(matcher == null ? 0 : matcher.computeMatchScore(), constantIndex);
       return true;
     });
 
+    var rankedIndices = new int[capacity];
+    var numberOfRankedIndices = selection.drainBestFirst(rankedIndices);
+    var result = new ArrayList<String>(numberOfRankedIndices);
+
+    for (var rankIndex = 0; rankIndex < numberOfRankedIndices; ++rankIndex)
+      result.add(decorateName(snapshot, rankedIndices[rankIndex], prefix, suffix));
+
     return result;
   }
 
+  /**
+   * Decorates the name the constant had within the snapshot, as it may have been renamed ever since
+   */
+  static String decorateName(ConstantsSnapshot<?> snapshot, int constantIndex, @Nullable String prefix, @Nullable String suffix) {
+    var name = snapshot.namings[constantIndex].normalizedName();
+
+    if (prefix != null)
+      name = prefix + name;
+
+    if (suffix != null)
+      name = name + suffix;
+
+    return name;
+  }
+
   public @Nullable NormalizedConstant<T> matchFirst(@Nullable String input) {
     return matchFirst(input, null);
   }
 
   public @Nullable NormalizedConstant<T> matchFirst(@Nullable String input, @Nullable EnumPredicate<T> filter) {
-    return forEachMatch(input, filter, match -> false);
+    if (maximumEditDistance == 0)
+      return forEachMatch(this.snapshot, input, filter, null, 0, null, (constantIndex, match, matcher) -> false);
+
+    var firstFuzzyMatch = new ArrayList<NormalizedConstant<T>>(1);
+
+    var firstExactMatch = forEachMatch(this.snapshot, input, filter, null, 0, null, (constantIndex, match, matcher) -> {
+      if (matcher == null || matcher.getNumberOfFuzzyMatches() == 0)
+        return false;
+
+      if (firstFuzzyMatch.isEmpty())
+        firstFuzzyMatch.add(match);
+
+      return true;
+    });
+
+    if (firstExactMatch != null || firstFuzzyMatch.isEmpty())
+      return firstExactMatch;
+
+    return firstFuzzyMatch.get(0);
   }
 
-  private @Nullable NormalizedConstant<T> forEachMatch(
+  /**
+   * @param snapshot The constants to match against, which all constant-indices refer to
+   * @param candidateIndices If non-null, only the first numberOfCandidates constant-indices
+   *                         contained within are checked; otherwise all constants are
+   * @param cancellation If non-null, matching stops early without a result once it has been cancelled
+   * @return The match at which the handler signalled to stop, if any
+   */
+  @Nullable NormalizedConstant<T> forEachMatch(
+    ConstantsSnapshot<T> snapshot,
     @Nullable String input,
     @Nullable EnumPredicate<T> filter,
-    Function<NormalizedConstant<T>, Boolean> matchHandler
+    @Nullable int[] candidateIndices,
+    int numberOfCandidates,
+    @Nullable Future<?> cancellation,
+    MatchHandler<T> matchHandler
   ) {
     if (input == null) {
-      for (var normalizedConstant : normalizedConstants) {
+      for (var constantIndex = 0; constantIndex < snapshot.constants.length; ++constantIndex) {
+        var normalizedConstant = snapshot.constants[constantIndex];
+
         if (filter != null && !filter.test(normalizedConstant))
           continue;
 
-        if (!matchHandler.apply(normalizedConstant))
+        if (!matchHandler.onMatch(constantIndex, normalizedConstant, null))
           return normalizedConstant;
       }
 
       return null;
     }
 
-    var inputSyllables = Syllables.forString(input, Syllables.DELIMITER_SEARCH_PATTERN);
+    var context = contextPool.acquire();
+    context.cancellation = cancellation;
+
+    try {
+      var metrics = this.metrics;
+
+      if (metrics == null)
+        return forEachMatch(snapshot, context, input, filter, candidateIndices, numberOfCandidates, matchHandler);
+
+      return forEachRecordedMatch(metrics, snapshot, context, input, filter, candidateIndices, numberOfCandidates, matchHandler);
+    } finally {
+      context.cancellation = null;
+      contextPool.release(context);
+    }
+  }
+
+  private @Nullable NormalizedConstant<T> forEachRecordedMatch(
+    MatchingMetrics metrics,
+    ConstantsSnapshot<T> snapshot,
+    MatchingContext context,
+    String input,
+    @Nullable EnumPredicate<T> filter,
+    @Nullable int[] candidateIndices,
+    int numberOfCandidates,
+    MatchHandler<T> matchHandler
+  ) {
+    var matcher = context.matcher;
+
+    var targetsBefore = matcher.getNumberOfTargets();
+    var indexOfInvocationsBefore = matcher.getNumberOfIndexOfInvocations();
+    var remaindersBefore = matcher.getNumberOfRemainders();
+
+    var numberOfMatches = new long[1];
+    var startNanos = System.nanoTime();
+
+    try {
+      return forEachMatch(snapshot, context, input, filter, candidateIndices, numberOfCandidates, (constantIndex, constant, constantMatcher) -> {
+        ++numberOfMatches[0];
+        return matchHandler.onMatch(constantIndex, constant, constantMatcher);
+      });
+    } finally {
+      metrics.recordQuery(
+        matcher.getNumberOfTargets() - targetsBefore,
+        matcher.getNumberOfIndexOfInvocations() - indexOfInvocationsBefore,
+        matcher.getNumberOfRemainders() - remaindersBefore,
+        numberOfMatches[0],
+        System.nanoTime() - startNanos
+      );
+    }
+  }
+
+  private @Nullable NormalizedConstant<T> forEachMatch(
+    ConstantsSnapshot<T> snapshot,
+    MatchingContext context,
+    String input,
+    @Nullable EnumPredicate<T> filter,
+    @Nullable int[] candidateIndices,
+    int numberOfCandidates,
+    MatchHandler<T> matchHandler
+  ) {
+    var inputSyllables = context.query;
+    var counters = Syllables.forStringWithWildcardSupport(input, Syllables.DELIMITER_SEARCH_PATTERN, inputSyllables);
 
-    var matcher = new SyllablesMatcher();
+    var matcher = context.matcher;
     matcher.setQuery(inputSyllables);
 
-    for (var constantIndex = 0; constantIndex < normalizedConstants.length; ++constantIndex) {
-      var constant = normalizedConstants[constantIndex];
+    var maximumEditDistance = this.maximumEditDistance;
+    matcher.setMaximumEditDistance(maximumEditDistance);
+
+    var currentIndex = snapshot.index;
+    var hasIndexCandidates = false;
+
+    if (currentIndex != null) {
+      context.ensureCandidateWords(currentIndex.getNumberOfWords());
+      hasIndexCandidates = currentIndex.collectCandidates(inputSyllables, maximumEditDistance, context.candidates, context.scratches);
+    }
+
+    var wildcards = WildcardRequirement.NONE;
+
+    if (inputSyllables.getWildcardMode() == WildcardMode.EXCLUDING_EXACT_MATCH) {
+      wildcards = new WildcardRequirement((int) (counters >> 32), countPositiveSyllables(inputSyllables));
+
+      // Constants with too few syllables cannot possibly leave enough syllables untouched
+      var masks = snapshot.minimumSyllableCountMasks;
+      var minimumSyllableCount = wildcards.minimumSyllableCount();
+
+      if (minimumSyllableCount >= masks.length)
+        return null;
+
+      var mask = masks[minimumSyllableCount];
+      context.ensureCandidateWords(mask.length);
+
+      for (var wordIndex = 0; wordIndex < mask.length; ++wordIndex)
+        context.candidates[wordIndex] = hasIndexCandidates ? (context.candidates[wordIndex] & mask[wordIndex]) : mask[wordIndex];
+
+      hasIndexCandidates = true;
+    }
+
+    var indexCandidates = context.candidates;
+
+    if (candidateIndices != null) {
+      for (var candidateIndex = 0; candidateIndex < numberOfCandidates; ++candidateIndex) {
+        if ((candidateIndex & CANCELLATION_POLL_MASK) == 0 && context.isCancelled())
+          return null;
+
+        var constantIndex = candidateIndices[candidateIndex];
+
+        if (hasIndexCandidates && (indexCandidates[constantIndex / Long.SIZE] & (1L << (constantIndex % Long.SIZE))) == 0)
+          continue;
+
+        var constant = snapshot.constants[constantIndex];
+
+        if (doesConstantMatch(matcher, snapshot, constantIndex, filter, wildcards) && !matchHandler.onMatch(constantIndex, constant, matcher))
+          return constant;
+      }
+
+      return null;
+    }
+
+    if (hasIndexCandidates) {
+      var numberOfWords = SyllablesMatcher.requiredLongs(snapshot.constants.length);
+
+      for (var wordIndex = 0; wordIndex < numberOfWords; ++wordIndex) {
+        if (context.isCancelled())
+          return null;
+
+        var word = indexCandidates[wordIndex];
 
-      if (filter != null && !filter.test(constant))
-        continue;
+        // Walk set bits in ascending order, as to retain the constants' order
+        while (word != 0) {
+          var constantIndex = wordIndex * Long.SIZE + Long.numberOfTrailingZeros(word);
+          var constant = snapshot.constants[constantIndex];
+          word &= word - 1;
 
-      if (constantIndex != 0)
-        matcher.resetQueryMatches();
+          if (doesConstantMatch(matcher, snapshot, constantIndex, filter, wildcards) && !matchHandler.onMatch(constantIndex, constant, matcher))
+            return constant;
+        }
+      }
+
+      return null;
+    }
 
-      matcher.setTarget(constant.getSyllables());
-      matcher.match();
+    for (var constantIndex = 0; constantIndex < snapshot.constants.length; ++constantIndex) {
+      if ((constantIndex & CANCELLATION_POLL_MASK) == 0 && context.isCancelled())
+        return null;
 
-      if (matcher.hasUnmatchedQuerySyllables())
-        continue;
+      var constant = snapshot.constants[constantIndex];
 
-      if (!matchHandler.apply(constant))
+      if (doesConstantMatch(matcher, snapshot, constantIndex, filter, wildcards) && !matchHandler.onMatch(constantIndex, constant, matcher))
         return constant;
     }
 
     return null;
   }
+
+  private boolean doesConstantMatch(
+    SyllablesMatcher matcher,
+    ConstantsSnapshot<T> snapshot,
+    int constantIndex,
+    @Nullable EnumPredicate<T> filter,
+    WildcardRequirement wildcards
+  ) {
+    if (filter != null && !filter.test(snapshot.constants[constantIndex]))
+      return false;
+
+    var syllables = snapshot.namings[constantIndex].syllables();
+
+    if (!matcher.doesQueryFullyMatch(syllables))
+      return false;
+
+    // Every non-negated query-syllable touches at most one target-syllable, thus only
+    // constants with few syllables need to have their untouched syllables counted.
+    if (syllables.size() >= wildcards.numberOfWildcards() + wildcards.numberOfPositiveSyllables())
+      return true;
+
+    return matcher.countUntouchedTargetSyllables() >= wildcards.numberOfWildcards();
+  }
+
+  /*
+    Each ?-wildcard stands for a whole target-syllable which no query-syllable touched, thereby
+    excluding exact matches; *-wildcards also admit exact matches and are thus without effect.
+   */
+  private record WildcardRequirement(int numberOfWildcards, int numberOfPositiveSyllables) {
+
+    static final WildcardRequirement NONE = new WildcardRequirement(0, 0);
+
+    /**
+     * @return Number of syllables a constant needs to have at least, given that any
+     *         non-negated query-syllables touch at least one of them when matching
+     */
+    int minimumSyllableCount() {
+      return numberOfWildcards + Math.min(numberOfPositiveSyllables, 1);
+    }
+  }
+
+  private static int countPositiveSyllables(Syllables syllables) {
+    var result = 0;
+
+    for (var syllableIndex = 0; syllableIndex < syllables.size(); ++syllableIndex) {
+      if (!Syllables.isNegated(syllables.getSyllable(syllableIndex)))
+        ++result;
+    }
+
+    return result;
+  }
+
+  int getNumberOfConstants() {
+    return snapshot.constants.length;
+  }
+
+  /**
+   * @return The constants as of now, which is replaced as a whole whenever constants have been renamed
+   */
+  ConstantsSnapshot<T> getSnapshot() {
+    return snapshot;
+  }
 }
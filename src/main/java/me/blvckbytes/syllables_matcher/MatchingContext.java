@@ -0,0 +1,42 @@
+package me.blvckbytes.syllables_matcher;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.Future;
+
+/*
+  Scratch-state of a single matching-operation, which is to be reused across
+  operations as to not allocate anew on each and every query.
+ */
+class MatchingContext {
+
+  final SyllablesMatcher matcher;
+  final Syllables query;
+
+  long[] candidates;
+  long[][] scratches;
+
+  // Polled while scanning constants, as to stop early once nobody awaits the result anymore
+  @Nullable Future<?> cancellation;
+
+  MatchingContext() {
+    this.matcher = new SyllablesMatcher();
+    this.query = new Syllables(null);
+    this.candidates = new long[0];
+    this.scratches = new long[3][0];
+  }
+
+  boolean isCancelled() {
+    return cancellation != null && cancellation.isCancelled();
+  }
+
+  void ensureCandidateWords(int numberOfWords) {
+    if (candidates.length >= numberOfWords)
+      return;
+
+    candidates = new long[numberOfWords];
+
+    for (var scratchIndex = 0; scratchIndex < scratches.length; ++scratchIndex)
+      scratches[scratchIndex] = new long[numberOfWords];
+  }
+}
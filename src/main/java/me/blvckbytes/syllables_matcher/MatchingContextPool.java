@@ -0,0 +1,50 @@
+package me.blvckbytes.syllables_matcher;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/*
+  Lock-free pool of matching-contexts; an acquired context is exclusively owned by the
+  caller until released. Whenever all slots are taken (more concurrent operations than
+  slots, or re-entrant use from within a match-handler), a new context is created and
+  dropped on release again, thereby never blocking.
+ */
+class MatchingContextPool {
+
+  private final AtomicReferenceArray<MatchingContext> slots;
+
+  MatchingContextPool() {
+    this(Runtime.getRuntime().availableProcessors() * 2);
+  }
+
+  MatchingContextPool(int numberOfSlots) {
+    this.slots = new AtomicReferenceArray<>(numberOfSlots);
+  }
+
+  MatchingContext acquire() {
+    var firstSlot = firstProbedSlot();
+
+    for (var probe = 0; probe < slots.length(); ++probe) {
+      var slot = (firstSlot + probe) % slots.length();
+      var context = slots.get(slot);
+
+      if (context != null && slots.compareAndSet(slot, context, null))
+        return context;
+    }
+
+    return new MatchingContext();
+  }
+
+  void release(MatchingContext context) {
+    var firstSlot = firstProbedSlot();
+
+    for (var probe = 0; probe < slots.length(); ++probe) {
+      if (slots.compareAndSet((firstSlot + probe) % slots.length(), null, context))
+        return;
+    }
+  }
+
+  private int firstProbedSlot() {
+    // Spread threads across slots, as to keep contention on a single slot low
+    return (int) (Thread.currentThread().getId() % slots.length());
+  }
+}
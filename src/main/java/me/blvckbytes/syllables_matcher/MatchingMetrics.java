@@ -0,0 +1,20 @@
+package me.blvckbytes.syllables_matcher;
+
+/**
+ * Receives measurements about the queries of an {@link EnumMatcher}, as to export them; only invoked once
+ * per query and only if enabled by {@link EnumMatcher#enableMetrics(MatchingMetrics)}, thus queries do not
+ * pay for it otherwise. Implementations need to be thread-safe, as instances may be queried concurrently.
+ */
+@FunctionalInterface
+public interface MatchingMetrics {
+
+  /**
+   * @param numberOfCandidates Constants which have been matched against, i.e. which have not been pruned beforehand
+   * @param numberOfIndexOfInvocations Substring-searches of a query-syllable within a target-syllable
+   * @param numberOfRemainders Remainders which have been created by partially matched target-syllables
+   * @param numberOfMatches Matches which have been handed out, up until the query stopped
+   * @param latencyNanos Time it took to complete the query
+   */
+  void recordQuery(long numberOfCandidates, long numberOfIndexOfInvocations, long numberOfRemainders, long numberOfMatches, long latencyNanos);
+
+}
@@ -0,0 +1,90 @@
+package me.blvckbytes.syllables_matcher;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+  Accumulates measurements in striped counters, as to not have concurrent queries contend on a
+  single cache-line. Latencies are counted into buckets of exponentially growing width, where
+  bucket i holds all latencies below 2^(i + 10) nanoseconds, i.e. the first one those below ~1us,
+  and the last one holds all remaining latencies.
+ */
+public class MatchingMetricsRecorder implements MatchingMetrics {
+
+  public static final int NUMBER_OF_BUCKETS = 24;
+
+  private static final int FIRST_BUCKET_EXPONENT = 10;
+
+  private final LongAdder queries;
+  private final LongAdder candidates;
+  private final LongAdder indexOfInvocations;
+  private final LongAdder remainders;
+  private final LongAdder matches;
+  private final LongAdder totalLatencyNanos;
+  private final LongAdder[] latencyBuckets;
+
+  public MatchingMetricsRecorder() {
+    this.queries = new LongAdder();
+    this.candidates = new LongAdder();
+    this.indexOfInvocations = new LongAdder();
+    this.remainders = new LongAdder();
+    this.matches = new LongAdder();
+    this.totalLatencyNanos = new LongAdder();
+    this.latencyBuckets = new LongAdder[NUMBER_OF_BUCKETS];
+
+    for (var bucketIndex = 0; bucketIndex < NUMBER_OF_BUCKETS; ++bucketIndex)
+      this.latencyBuckets[bucketIndex] = new LongAdder();
+  }
+
+  @Override
+  public void recordQuery(long numberOfCandidates, long numberOfIndexOfInvocations, long numberOfRemainders, long numberOfMatches, long latencyNanos) {
+    queries.increment();
+    candidates.add(numberOfCandidates);
+    indexOfInvocations.add(numberOfIndexOfInvocations);
+    remainders.add(numberOfRemainders);
+    matches.add(numberOfMatches);
+    totalLatencyNanos.add(latencyNanos);
+    latencyBuckets[getBucketIndex(latencyNanos)].increment();
+  }
+
+  /**
+   * Counters are read one after the other, thus queries recorded concurrently may only be contained partially
+   */
+  public MatchingMetricsSnapshot snapshot() {
+    var latencyHistogram = new long[NUMBER_OF_BUCKETS];
+
+    for (var bucketIndex = 0; bucketIndex < NUMBER_OF_BUCKETS; ++bucketIndex)
+      latencyHistogram[bucketIndex] = latencyBuckets[bucketIndex].sum();
+
+    return new MatchingMetricsSnapshot(
+      queries.sum(), candidates.sum(), indexOfInvocations.sum(),
+      remainders.sum(), matches.sum(), totalLatencyNanos.sum(), latencyHistogram
+    );
+  }
+
+  public void reset() {
+    queries.reset();
+    candidates.reset();
+    indexOfInvocations.reset();
+    remainders.reset();
+    matches.reset();
+    totalLatencyNanos.reset();
+
+    for (var latencyBucket : latencyBuckets)
+      latencyBucket.reset();
+  }
+
+  /**
+   * @return Exclusive upper bound of the latencies counted into the given bucket; Long.MAX_VALUE for the last one
+   */
+  public static long getBucketUpperBoundNanos(int bucketIndex) {
+    if (bucketIndex == NUMBER_OF_BUCKETS - 1)
+      return Long.MAX_VALUE;
+
+    return 1L << (bucketIndex + FIRST_BUCKET_EXPONENT);
+  }
+
+  private static int getBucketIndex(long latencyNanos) {
+    var bitLength = Long.SIZE - Long.numberOfLeadingZeros(latencyNanos);
+    return Math.max(0, Math.min(NUMBER_OF_BUCKETS - 1, bitLength - FIRST_BUCKET_EXPONENT));
+  }
+}
@@ -0,0 +1,14 @@
+package me.blvckbytes.syllables_matcher;
+
+/**
+ * @param latencyHistogram Number of queries by latency-bucket, see {@link MatchingMetricsRecorder#getBucketUpperBoundNanos(int)}
+ */
+public record MatchingMetricsSnapshot(
+  long queries,
+  long candidates,
+  long indexOfInvocations,
+  long remainders,
+  long matches,
+  long totalLatencyNanos,
+  long[] latencyHistogram
+) {}
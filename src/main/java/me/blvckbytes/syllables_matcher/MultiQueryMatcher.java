@@ -0,0 +1,399 @@
+package me.blvckbytes.syllables_matcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+
+/*
+  Matches many queries against one target at a time, e.g. a list of blocked words against each
+  chat-message. The distinct syllables of all queries are compiled into an Aho-Corasick automaton,
+  which is run once over the color-stripped view of the target, as to collect which syllables occur
+  within a single target-syllable. As remainders are substrings of their target-syllable, a query
+  with a non-negated syllable that did not occur cannot match, while negated syllables that did not
+  occur never consume any target and are thus of no effect. Queries whose remaining syllables are
+  at most a single non-negated one are thereby decided; all others which are still in question
+  are verified by a SyllablesMatcher, as to honor the order-dependent consumption of targets.
+
+  Instances reuse their scratch-state across calls and are thus to be confined to a single thread.
+ */
+public class MultiQueryMatcher {
+
+  private static final int INITIAL_NUMBER_OF_NODES = 64;
+
+  private final Syllables[] queries;
+
+  // Pattern-indices of each query's syllables, in order; negated syllables are flagged separately
+  private final int[][] queryPatterns;
+  private final boolean[][] queryPatternNegated;
+  private final int[] numberOfPositiveSyllables;
+  private final int[] queriesWithoutPositiveSyllables;
+
+  private final int[] patternLengths;
+  private final int[][] patternQueries;
+
+  // Characters occurring within any pattern map to classes starting at one; all others to zero
+  private final char[] latin1Classes;
+  private final char[] nonLatin1Chars;
+  private final char[] nonLatin1Classes;
+  private final int numberOfClasses;
+
+  private int[] transitions;
+  private int[] nodePatterns;
+  private int[] dictionaryLinks;
+  private int numberOfNodes;
+
+  private final TargetView scratchView;
+  private final SyllablesMatcher verifier;
+  private int[] targetSyllableByViewIndex;
+
+  private final int[] patternStamps;
+  private final int[] queryStamps;
+  private final int[] candidateQueries;
+  private int numberOfCandidateQueries;
+  private int stamp;
+
+  public MultiQueryMatcher(List<Syllables> queries) {
+    this.queries = new Syllables[queries.size()];
+    this.queryPatterns = new int[queries.size()][];
+    this.queryPatternNegated = new boolean[queries.size()][];
+    this.numberOfPositiveSyllables = new int[queries.size()];
+
+    var patternIndexByString = new HashMap<String, Integer>();
+    var patternStrings = new ArrayList<String>();
+    var queriesWithoutPositiveSyllables = new ArrayList<Integer>();
+
+    for (var queryIndex = 0; queryIndex < queries.size(); ++queryIndex) {
+      var query = queries.get(queryIndex).freeze();
+
+      this.queries[queryIndex] = query;
+      this.queryPatterns[queryIndex] = new int[query.size()];
+      this.queryPatternNegated[queryIndex] = new boolean[query.size()];
+
+      for (var syllableIndex = 0; syllableIndex < query.size(); ++syllableIndex) {
+        var syllable = query.getSyllable(syllableIndex);
+        var patternString = query.container.substring(query.getStartIndexOf(syllable), query.getEndIndexOf(syllable) + 1);
+
+        var patternIndex = patternIndexByString.computeIfAbsent(patternString, key -> {
+          patternStrings.add(key);
+          return patternStrings.size() - 1;
+        });
+
+        this.queryPatterns[queryIndex][syllableIndex] = patternIndex;
+        this.queryPatternNegated[queryIndex][syllableIndex] = Syllables.isNegated(syllable);
+
+        if (!Syllables.isNegated(syllable))
+          ++this.numberOfPositiveSyllables[queryIndex];
+      }
+
+      if (this.numberOfPositiveSyllables[queryIndex] == 0)
+        queriesWithoutPositiveSyllables.add(queryIndex);
+    }
+
+    this.queriesWithoutPositiveSyllables = queriesWithoutPositiveSyllables.stream().mapToInt(Integer::intValue).toArray();
+
+    this.patternLengths = new int[patternStrings.size()];
+    this.patternQueries = makePatternQueries(patternStrings.size());
+
+    this.latin1Classes = new char[256];
+
+    var nonLatin1Chars = patternStrings.stream()
+      .flatMapToInt(String::chars)
+      .filter(c -> c >= latin1Classes.length)
+      .distinct()
+      .sorted()
+      .toArray();
+
+    this.nonLatin1Chars = new char[nonLatin1Chars.length];
+    this.nonLatin1Classes = new char[nonLatin1Chars.length];
+
+    var nextClass = 1;
+
+    for (var patternString : patternStrings) {
+      for (var charIndex = 0; charIndex < patternString.length(); ++charIndex) {
+        var c = patternString.charAt(charIndex);
+
+        if (c < latin1Classes.length && latin1Classes[c] == 0)
+          latin1Classes[c] = (char) nextClass++;
+      }
+    }
+
+    for (var charIndex = 0; charIndex < nonLatin1Chars.length; ++charIndex) {
+      this.nonLatin1Chars[charIndex] = (char) nonLatin1Chars[charIndex];
+      this.nonLatin1Classes[charIndex] = (char) nextClass++;
+    }
+
+    this.numberOfClasses = nextClass;
+
+    buildAutomaton(patternStrings);
+
+    this.scratchView = new TargetView();
+    this.verifier = new SyllablesMatcher();
+    this.targetSyllableByViewIndex = new int[0];
+
+    this.patternStamps = new int[patternStrings.size()];
+    this.queryStamps = new int[queries.size()];
+    this.candidateQueries = new int[queries.size()];
+  }
+
+  public MultiQueryMatcher(Syllables[] queries) {
+    this(Arrays.asList(queries));
+  }
+
+  public int getNumberOfQueries() {
+    return queries.length;
+  }
+
+  /**
+   * @return Indices of all queries which fully matched the target, i.e. without unmatched query-syllables
+   */
+  public BitSet match(Syllables target) {
+    var result = new BitSet(queries.length);
+    match(target, result);
+    return result;
+  }
+
+  /**
+   * Clears the provided set and marks the indices of all queries which fully matched the target
+   */
+  public void match(Syllables target, BitSet output) {
+    output.clear();
+
+    if (++stamp == 0) {
+      Arrays.fill(patternStamps, 0);
+      Arrays.fill(queryStamps, 0);
+      stamp = 1;
+    }
+
+    numberOfCandidateQueries = 0;
+
+    collectOccurrences(target);
+
+    for (var candidateIndex = 0; candidateIndex < numberOfCandidateQueries; ++candidateIndex) {
+      var queryIndex = candidateQueries[candidateIndex];
+
+      if (doesQueryMatch(queryIndex, target))
+        output.set(queryIndex);
+    }
+
+    for (var queryIndex : queriesWithoutPositiveSyllables) {
+      // Already evaluated as a candidate, due to one of its negated syllables having occurred
+      if (queryStamps[queryIndex] == stamp)
+        continue;
+
+      // None of its syllables occurred, thus all of them are removed as unmatched negations
+      output.set(queryIndex);
+    }
+  }
+
+  private boolean doesQueryMatch(int queryIndex, Syllables target) {
+    var patterns = queryPatterns[queryIndex];
+    var negated = queryPatternNegated[queryIndex];
+
+    var hasOccurredNegation = false;
+
+    for (var syllableIndex = 0; syllableIndex < patterns.length; ++syllableIndex) {
+      var hasOccurred = patternStamps[patterns[syllableIndex]] == stamp;
+
+      if (negated[syllableIndex]) {
+        hasOccurredNegation |= hasOccurred;
+        continue;
+      }
+
+      if (!hasOccurred)
+        return false;
+    }
+
+    if (!hasOccurredNegation && numberOfPositiveSyllables[queryIndex] <= 1)
+      return true;
+
+    verifier.setQuery(queries[queryIndex]);
+    return verifier.doesQueryFullyMatch(target);
+  }
+
+  private void collectOccurrences(Syllables target) {
+    var targetView = target.getTargetView();
+
+    if (targetView == null) {
+      scratchView.load(target.container);
+      targetView = scratchView;
+    }
+
+    var viewLength = targetView.length;
+
+    if (targetSyllableByViewIndex.length < viewLength)
+      targetSyllableByViewIndex = new int[Math.max(viewLength, targetSyllableByViewIndex.length * 2)];
+
+    // Positions in between syllables, i.e. delimiters, belong to no syllable at all
+    Arrays.fill(targetSyllableByViewIndex, 0, viewLength, -1);
+
+    for (var syllableIndex = 0; syllableIndex < target.size(); ++syllableIndex) {
+      var syllable = target.getSyllable(syllableIndex);
+      var viewStart = targetView.toViewIndex(target.getStartIndexOf(syllable));
+      var viewEnd = targetView.toViewIndex(target.getEndIndexOf(syllable) + 1);
+
+      Arrays.fill(targetSyllableByViewIndex, viewStart, viewEnd, syllableIndex);
+    }
+
+    var viewChars = targetView.chars;
+    var state = 0;
+
+    for (var viewIndex = 0; viewIndex < viewLength; ++viewIndex) {
+      state = transitions[state * numberOfClasses + classOf(viewChars[viewIndex])];
+
+      var targetSyllableIndex = targetSyllableByViewIndex[viewIndex];
+
+      if (targetSyllableIndex < 0)
+        continue;
+
+      var outputNode = nodePatterns[state] >= 0 ? state : dictionaryLinks[state];
+
+      while (outputNode >= 0) {
+        var patternIndex = nodePatterns[outputNode];
+
+        // Only occurrences within a single target-syllable are of relevance
+        if (targetSyllableByViewIndex[viewIndex - patternLengths[patternIndex] + 1] == targetSyllableIndex)
+          onPatternOccurred(patternIndex);
+
+        outputNode = dictionaryLinks[outputNode];
+      }
+    }
+  }
+
+  private void onPatternOccurred(int patternIndex) {
+    if (patternStamps[patternIndex] == stamp)
+      return;
+
+    patternStamps[patternIndex] = stamp;
+
+    for (var queryIndex : patternQueries[patternIndex]) {
+      if (queryStamps[queryIndex] == stamp)
+        continue;
+
+      queryStamps[queryIndex] = stamp;
+      candidateQueries[numberOfCandidateQueries++] = queryIndex;
+    }
+  }
+
+  private int classOf(char c) {
+    if (c < latin1Classes.length)
+      return latin1Classes[c];
+
+    var index = Arrays.binarySearch(nonLatin1Chars, c);
+    return index < 0 ? 0 : nonLatin1Classes[index];
+  }
+
+  private int[][] makePatternQueries(int numberOfPatterns) {
+    var queryLists = new ArrayList<List<Integer>>(numberOfPatterns);
+
+    for (var patternIndex = 0; patternIndex < numberOfPatterns; ++patternIndex)
+      queryLists.add(new ArrayList<>());
+
+    for (var queryIndex = 0; queryIndex < queryPatterns.length; ++queryIndex) {
+      for (var patternIndex : queryPatterns[queryIndex]) {
+        var queryList = queryLists.get(patternIndex);
+
+        // Queries are visited in ascending order, so duplicates can only ever be trailing
+        if (queryList.isEmpty() || queryList.get(queryList.size() - 1) != queryIndex)
+          queryList.add(queryIndex);
+      }
+    }
+
+    var result = new int[numberOfPatterns][];
+
+    for (var patternIndex = 0; patternIndex < numberOfPatterns; ++patternIndex)
+      result[patternIndex] = queryLists.get(patternIndex).stream().mapToInt(Integer::intValue).toArray();
+
+    return result;
+  }
+
+  private void buildAutomaton(List<String> patternStrings) {
+    transitions = new int[INITIAL_NUMBER_OF_NODES * numberOfClasses];
+    nodePatterns = new int[INITIAL_NUMBER_OF_NODES];
+    numberOfNodes = 1;
+
+    Arrays.fill(transitions, -1);
+    Arrays.fill(nodePatterns, -1);
+
+    for (var patternIndex = 0; patternIndex < patternStrings.size(); ++patternIndex) {
+      var patternString = patternStrings.get(patternIndex);
+      var node = 0;
+
+      for (var charIndex = 0; charIndex < patternString.length(); ++charIndex) {
+        var slot = node * numberOfClasses + classOf(patternString.charAt(charIndex));
+
+        if (transitions[slot] < 0) {
+          // Allocating may grow the table, thus it has to happen before dereferencing it
+          var child = allocateNode();
+          transitions[slot] = child;
+        }
+
+        node = transitions[slot];
+      }
+
+      nodePatterns[node] = patternIndex;
+      patternLengths[patternIndex] = patternString.length();
+    }
+
+    // Breadth-first, as to turn the trie into a complete transition-table while computing
+    // failure-links, which are only needed to derive transitions and dictionary-links.
+    var failureLinks = new int[numberOfNodes];
+    var queue = new int[numberOfNodes];
+    var queueHead = 0;
+    var queueTail = 0;
+
+    dictionaryLinks = new int[numberOfNodes];
+    dictionaryLinks[0] = -1;
+
+    for (var charClass = 0; charClass < numberOfClasses; ++charClass) {
+      var child = transitions[charClass];
+
+      if (child < 0) {
+        transitions[charClass] = 0;
+        continue;
+      }
+
+      failureLinks[child] = 0;
+      dictionaryLinks[child] = -1;
+      queue[queueTail++] = child;
+    }
+
+    while (queueHead < queueTail) {
+      var node = queue[queueHead++];
+      var failureNode = failureLinks[node];
+
+      for (var charClass = 0; charClass < numberOfClasses; ++charClass) {
+        var slot = node * numberOfClasses + charClass;
+        var child = transitions[slot];
+        var failureTransition = transitions[failureNode * numberOfClasses + charClass];
+
+        if (child < 0) {
+          transitions[slot] = failureTransition;
+          continue;
+        }
+
+        failureLinks[child] = failureTransition;
+        dictionaryLinks[child] = nodePatterns[failureTransition] >= 0 ? failureTransition : dictionaryLinks[failureTransition];
+        queue[queueTail++] = child;
+      }
+    }
+
+    transitions = Arrays.copyOf(transitions, numberOfNodes * numberOfClasses);
+    nodePatterns = Arrays.copyOf(nodePatterns, numberOfNodes);
+  }
+
+  private int allocateNode() {
+    if (numberOfNodes == nodePatterns.length) {
+      var oldNumberOfSlots = transitions.length;
+
+      nodePatterns = Arrays.copyOf(nodePatterns, numberOfNodes * 2);
+      transitions = Arrays.copyOf(transitions, oldNumberOfSlots * 2);
+
+      Arrays.fill(nodePatterns, numberOfNodes, nodePatterns.length, -1);
+      Arrays.fill(transitions, oldNumberOfSlots, transitions.length, -1);
+    }
+
+    return numberOfNodes++;
+  }
+}
@@ -0,0 +1,341 @@
+package me.blvckbytes.syllables_matcher;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/*
+  Maps every uni-, bi- and trigram occurring within a syllable of an entry to the ascending
+  list of entry-indices containing it. As query-syllables may only ever match within a single
+  target-syllable (remainders are substrings thereof), all grams of a non-negated query-syllable
+  need to be present in an entry for it to possibly match; intersecting the corresponding postings
+  thereby yields a superset of all matches, which is then to be verified by the exact matcher.
+  Syllables which may match approximately are split into pieces, of which at least one needs to
+  be present in an entry instead.
+ */
+class NGramIndex {
+
+  private static final int MAX_GRAM_LENGTH = 3;
+  private static final int INITIAL_TABLE_CAPACITY = 1024;
+  private static final int INITIAL_POSTINGS_CAPACITY = 4;
+
+  private final int numberOfWords;
+
+  // Entries containing color-sequences cannot be indexed reliably, as matching skips over these
+  private final long[] unindexableEntries;
+
+  // Open addressing with linear probing; keys are never zero, as they always encode a length
+  private long[] tableKeys;
+  private int[][] tablePostings;
+  private int[] tablePostingSizes;
+  private int tableSize;
+
+  NGramIndex(Syllables[] entries) {
+    this.numberOfWords = SyllablesMatcher.requiredLongs(entries.length);
+    this.unindexableEntries = new long[numberOfWords];
+
+    this.tableKeys = new long[INITIAL_TABLE_CAPACITY];
+    this.tablePostings = new int[INITIAL_TABLE_CAPACITY][];
+    this.tablePostingSizes = new int[INITIAL_TABLE_CAPACITY];
+
+    for (var entryIndex = 0; entryIndex < entries.length; ++entryIndex)
+      addEntry(entryIndex, entries[entryIndex]);
+
+    for (var slot = 0; slot < tableKeys.length; ++slot) {
+      if (tableKeys[slot] != 0)
+        tablePostings[slot] = Arrays.copyOf(tablePostings[slot], tablePostingSizes[slot]);
+    }
+
+    this.tablePostingSizes = null;
+  }
+
+  /**
+   * Restores an index written by {@link #writeTo(ByteBuffer)}, advancing the buffer past it
+   */
+  NGramIndex(ByteBuffer buffer) {
+    this.numberOfWords = buffer.getInt();
+    this.unindexableEntries = new long[numberOfWords];
+
+    for (var wordIndex = 0; wordIndex < numberOfWords; ++wordIndex)
+      unindexableEntries[wordIndex] = buffer.getLong();
+
+    var tableCapacity = buffer.getInt();
+
+    this.tableKeys = new long[tableCapacity];
+    this.tablePostings = new int[tableCapacity][];
+
+    for (var slot = 0; slot < tableCapacity; ++slot) {
+      var key = buffer.getLong();
+
+      if (key == 0)
+        continue;
+
+      var postings = new int[buffer.getInt()];
+
+      for (var postingIndex = 0; postingIndex < postings.length; ++postingIndex)
+        postings[postingIndex] = buffer.getInt();
+
+      tableKeys[slot] = key;
+      tablePostings[slot] = postings;
+      ++tableSize;
+    }
+  }
+
+  /*
+    <4b number_of_words><number_of_words * 8b unindexable><4b table_capacity>
+    <table_capacity * (8b key[, if key != 0: <4b number_of_postings><number_of_postings * 4b posting>])>
+
+    Slots are kept as-is, such that keys need not be rehashed when restoring.
+   */
+  int getSerializedLength() {
+    var result = 4 + numberOfWords * 8 + 4 + tableKeys.length * 8;
+
+    for (var slot = 0; slot < tableKeys.length; ++slot) {
+      if (tableKeys[slot] != 0)
+        result += 4 + tablePostings[slot].length * 4;
+    }
+
+    return result;
+  }
+
+  void writeTo(ByteBuffer buffer) {
+    buffer.putInt(numberOfWords);
+
+    for (var unindexableWord : unindexableEntries)
+      buffer.putLong(unindexableWord);
+
+    buffer.putInt(tableKeys.length);
+
+    for (var slot = 0; slot < tableKeys.length; ++slot) {
+      buffer.putLong(tableKeys[slot]);
+
+      if (tableKeys[slot] == 0)
+        continue;
+
+      buffer.putInt(tablePostings[slot].length);
+
+      for (var posting : tablePostings[slot])
+        buffer.putInt(posting);
+    }
+  }
+
+  int getNumberOfWords() {
+    return numberOfWords;
+  }
+
+  /**
+   * Fills the provided bitset with all entries which may possibly match the query
+   * @param maximumEditDistance See {@link SyllablesMatcher#setMaximumEditDistance(int)}
+   * @param candidates Output bitset of at least {@link #getNumberOfWords()} longs
+   * @param scratches Three scratch bitsets of at least {@link #getNumberOfWords()} longs each
+   * @return False if the query does not allow for any pruning, in which case the
+   *         candidates are to be disregarded and all entries are to be checked
+   */
+  boolean collectCandidates(Syllables query, int maximumEditDistance, long[] candidates, long[][] scratches) {
+    var hasCollectedPostings = false;
+
+    for (var querySyllableIndex = 0; querySyllableIndex < query.size(); ++querySyllableIndex) {
+      var querySyllable = query.getSyllable(querySyllableIndex);
+
+      if (Syllables.isNegated(querySyllable))
+        continue;
+
+      var start = query.getStartIndexOf(querySyllable);
+      var length = query.getLengthOf(querySyllable);
+      var allowedEditDistance = EditDistanceScanner.getAllowedDistance(maximumEditDistance, length);
+
+      if (allowedEditDistance == 0) {
+        if (!intersectGrams(query.container, start, length, candidates, !hasCollectedPostings, scratches[0]))
+          return collectUnindexableEntries(candidates);
+
+        hasCollectedPostings = true;
+        continue;
+      }
+
+      // Splitting into one more piece than there are edits leaves at least one piece untouched, which thus
+      // occurs exactly; entries which contain any of the pieces are the candidates of this syllable.
+      var syllableCandidates = scratches[1];
+      var pieceCandidates = scratches[2];
+
+      Arrays.fill(syllableCandidates, 0, numberOfWords, 0);
+
+      var numberOfPieces = allowedEditDistance + 1;
+
+      for (var pieceIndex = 0; pieceIndex < numberOfPieces; ++pieceIndex) {
+        var pieceStart = start + length * pieceIndex / numberOfPieces;
+        var pieceEnd = start + length * (pieceIndex + 1) / numberOfPieces;
+
+        if (!intersectGrams(query.container, pieceStart, pieceEnd - pieceStart, pieceCandidates, true, scratches[0]))
+          continue;
+
+        for (var wordIndex = 0; wordIndex < numberOfWords; ++wordIndex)
+          syllableCandidates[wordIndex] |= pieceCandidates[wordIndex];
+      }
+
+      for (var wordIndex = 0; wordIndex < numberOfWords; ++wordIndex)
+        candidates[wordIndex] = hasCollectedPostings ? (candidates[wordIndex] & syllableCandidates[wordIndex]) : syllableCandidates[wordIndex];
+
+      hasCollectedPostings = true;
+    }
+
+    if (!hasCollectedPostings)
+      return false;
+
+    orUnindexableEntries(candidates);
+    return true;
+  }
+
+  /**
+   * Intersects the postings of all grams of the given substring into the output bitset
+   * @param isFirst Whether to overwrite the output instead of intersecting into it
+   * @return False if any gram does not occur at all, in which case the output is to be disregarded
+   */
+  private boolean intersectGrams(String container, int start, int length, long[] output, boolean isFirst, long[] scratch) {
+    var gramLength = Math.min(length, MAX_GRAM_LENGTH);
+
+    for (var gramStart = start; gramStart <= start + length - gramLength; ++gramStart) {
+      var postings = lookupPostings(makeKey(container, gramStart, gramLength));
+
+      if (postings == null)
+        return false;
+
+      if (isFirst) {
+        Arrays.fill(output, 0, numberOfWords, 0);
+        setBits(output, postings);
+        isFirst = false;
+        continue;
+      }
+
+      Arrays.fill(scratch, 0, numberOfWords, 0);
+      setBits(scratch, postings);
+
+      for (var wordIndex = 0; wordIndex < numberOfWords; ++wordIndex)
+        output[wordIndex] &= scratch[wordIndex];
+    }
+
+    return true;
+  }
+
+  private boolean collectUnindexableEntries(long[] candidates) {
+    Arrays.fill(candidates, 0, numberOfWords, 0);
+    orUnindexableEntries(candidates);
+    return true;
+  }
+
+  private void orUnindexableEntries(long[] candidates) {
+    for (var wordIndex = 0; wordIndex < numberOfWords; ++wordIndex)
+      candidates[wordIndex] |= unindexableEntries[wordIndex];
+  }
+
+  private void addEntry(int entryIndex, Syllables entry) {
+    if (entry.container != null && entry.container.indexOf('§') >= 0) {
+      unindexableEntries[entryIndex / Long.SIZE] |= 1L << (entryIndex % Long.SIZE);
+      return;
+    }
+
+    for (var syllableIndex = 0; syllableIndex < entry.size(); ++syllableIndex) {
+      var syllable = entry.getSyllable(syllableIndex);
+      var start = entry.getStartIndexOf(syllable);
+      var length = entry.getLengthOf(syllable);
+
+      for (var gramLength = 1; gramLength <= MAX_GRAM_LENGTH; ++gramLength) {
+        for (var gramStart = start; gramStart <= start + length - gramLength; ++gramStart)
+          addPosting(makeKey(entry.container, gramStart, gramLength), entryIndex);
+      }
+    }
+  }
+
+  private void addPosting(long key, int entryIndex) {
+    var slot = findSlot(tableKeys, key);
+
+    if (tableKeys[slot] == 0) {
+      // Keep the load-factor at or below one half
+      if ((tableSize + 1) * 2 > tableKeys.length) {
+        growTable();
+        slot = findSlot(tableKeys, key);
+      }
+
+      tableKeys[slot] = key;
+      tablePostings[slot] = new int[INITIAL_POSTINGS_CAPACITY];
+      ++tableSize;
+    }
+
+    var postings = tablePostings[slot];
+    var size = tablePostingSizes[slot];
+
+    // Entries are added in ascending order, so duplicates can only ever be trailing
+    if (size != 0 && postings[size - 1] == entryIndex)
+      return;
+
+    if (size == postings.length)
+      tablePostings[slot] = postings = Arrays.copyOf(postings, size * 2);
+
+    postings[size] = entryIndex;
+    tablePostingSizes[slot] = size + 1;
+  }
+
+  private void growTable() {
+    var oldKeys = tableKeys;
+    var oldPostings = tablePostings;
+    var oldSizes = tablePostingSizes;
+
+    tableKeys = new long[oldKeys.length * 2];
+    tablePostings = new int[oldKeys.length * 2][];
+    tablePostingSizes = new int[oldKeys.length * 2];
+
+    for (var oldSlot = 0; oldSlot < oldKeys.length; ++oldSlot) {
+      if (oldKeys[oldSlot] == 0)
+        continue;
+
+      var newSlot = findSlot(tableKeys, oldKeys[oldSlot]);
+
+      tableKeys[newSlot] = oldKeys[oldSlot];
+      tablePostings[newSlot] = oldPostings[oldSlot];
+      tablePostingSizes[newSlot] = oldSizes[oldSlot];
+    }
+  }
+
+  private @Nullable int[] lookupPostings(long key) {
+    var slot = findSlot(tableKeys, key);
+
+    if (tableKeys[slot] == 0)
+      return null;
+
+    return tablePostings[slot];
+  }
+
+  private static int findSlot(long[] keys, long key) {
+    var mask = keys.length - 1;
+    var slot = (int) (mix(key) & mask);
+
+    while (keys[slot] != 0 && keys[slot] != key)
+      slot = (slot + 1) & mask;
+
+    return slot;
+  }
+
+  private static long mix(long key) {
+    key ^= key >>> 33;
+    key *= 0xFF51AFD7ED558CCDL;
+    key ^= key >>> 33;
+    return key;
+  }
+
+  /*
+    <16b length><16b first char><16b second char><16b third char>
+   */
+  private static long makeKey(String container, int start, int length) {
+    var key = (long) length << 48;
+
+    for (var offset = 0; offset < length; ++offset)
+      key |= ((long) container.charAt(start + offset)) << (32 - offset * 16);
+
+    return key;
+  }
+
+  private static void setBits(long[] bitset, int[] indices) {
+    for (var index : indices)
+      bitset[index / Long.SIZE] |= 1L << (index % Long.SIZE);
+  }
+}
@@ -1,33 +1,71 @@
 package me.blvckbytes.syllables_matcher;
 
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
 import java.util.Objects;
 
 public class NormalizedConstant<T extends MatchableEnum> {
 
+  /**
+   * The name and the syllables parsed from it, which are replaced as a whole, as to never be observed torn
+   */
+  record Naming(String normalizedName, Syllables syllables) {
+
+    static Naming forName(String name) {
+      var normalizedName = normalizeName(name);
+      return new Naming(normalizedName, Syllables.forString(normalizedName, Syllables.DELIMITER_SEARCH_PATTERN).freeze());
+    }
+  }
+
   public final T constant;
   public final String initialNormalizedName;
 
-  private String normalizedName;
-  private Syllables syllables;
+  private volatile Naming naming;
+
+  @Nullable EnumMatcher<T> owner;
 
   public NormalizedConstant(T constant) {
     this.constant = constant;
-    this.normalizedName = normalizeName(constant.name());
-    this.initialNormalizedName = this.normalizedName;
-    this.syllables = Syllables.forString(this.normalizedName, Syllables.DELIMITER_SEARCH_PATTERN);
+    this.naming = Naming.forName(constant.name());
+    this.initialNormalizedName = this.naming.normalizedName();
   }
 
+  /**
+   * Restores a constant from its prebuilt state, see {@link EnumMatcher#save(java.nio.file.Path)}
+   */
+  NormalizedConstant(T constant, String normalizedName, Syllables syllables) {
+    this.constant = constant;
+    this.naming = new Naming(normalizedName, syllables);
+    this.initialNormalizedName = normalizedName;
+  }
+
+  /**
+   * Renaming multiple constants of the same matcher is best done at once, see {@link EnumMatcher#setNames(Map)}
+   */
   public void setName(String name) {
-    this.normalizedName = normalizeName(name);
-    this.syllables = Syllables.forString(this.normalizedName, Syllables.DELIMITER_SEARCH_PATTERN);
+    if (owner != null) {
+      owner.setNames(Map.of(constant, name));
+      return;
+    }
+
+    this.naming = Naming.forName(name);
   }
 
   public String getNormalizedName() {
-    return normalizedName;
+    return naming.normalizedName();
   }
 
   public Syllables getSyllables() {
-    return syllables;
+    return naming.syllables();
+  }
+
+  Naming getNaming() {
+    return naming;
+  }
+
+  void setNaming(Naming naming) {
+    this.naming = naming;
   }
 
   private static String normalizeName(String name) {
@@ -0,0 +1,219 @@
+package me.blvckbytes.syllables_matcher;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.file.Path;
+
+/*
+  Append-only collection of targets which keeps their normalized containers as well as their packed
+  syllables in direct memory, as to not have millions of short-lived strings and arrays promoted into
+  the old generation. Entries are identified by their insertion-index and are laid out contiguously:
+
+    <4b container_length><4b number_of_syllables>
+    <number_of_syllables * 4b packed syllable><number_of_syllables * 8b signature>
+    <container_length * 2b char><padding up to a multiple of 4b>
+
+  Only compact syllables are stored, thus containers are limited to the compact index-range. Adding
+  entries is not thread-safe and must not happen while matching; see OffHeapCorpusMatcher. As the
+  layout is position-independent, saved corpora are loaded by mapping the file, without copying.
+ */
+public class OffHeapCorpus {
+
+  private static final int INITIAL_CAPACITY = 4096;
+  private static final int MAXIMUM_CONTAINER_LENGTH = 32768;
+
+  private ByteBuffer data;
+  private int dataLength;
+
+  // Byte-offset into the data by entry-id
+  private ByteBuffer entryOffsets;
+  private int size;
+
+  // Scratch-instance to parse entries into before copying them off-heap
+  private final Syllables parseBuffer;
+
+  public OffHeapCorpus() {
+    this(allocate(INITIAL_CAPACITY), 0, allocate(INITIAL_CAPACITY), 0);
+  }
+
+  private OffHeapCorpus(ByteBuffer data, int dataLength, ByteBuffer entryOffsets, int size) {
+    this.data = data;
+    this.dataLength = dataLength;
+    this.entryOffsets = entryOffsets;
+    this.size = size;
+    this.parseBuffer = new Syllables(null);
+  }
+
+  /**
+   * Loads a corpus saved by {@link #save(Path, long)} by mapping the file into memory; entries may
+   * still be added afterwards, which copies the corpus into direct memory once.
+   * @param sourceHash Hash of the sources the corpus has been built from, see {@link #computeSourceHash(Iterable, char)}
+   * @return The loaded corpus, or null if the file does not exist or is stale, in which case it is to be rebuilt
+   */
+  public static @Nullable OffHeapCorpus load(Path path, long sourceHash) throws IOException {
+    var body = PrebuiltFile.map(path, PrebuiltFile.KIND_CORPUS, sourceHash);
+
+    if (body == null)
+      return null;
+
+    var size = body.getInt(0);
+    var dataLength = body.getInt(4);
+
+    var entryOffsets = body.slice(8, size * 4).order(PrebuiltFile.BYTE_ORDER);
+    var data = body.slice(8 + size * 4, dataLength).order(PrebuiltFile.BYTE_ORDER);
+
+    return new OffHeapCorpus(data, dataLength, entryOffsets, size);
+  }
+
+  public void save(Path path, long sourceHash) throws IOException {
+    var lengths = ByteBuffer.allocate(8).order(PrebuiltFile.BYTE_ORDER);
+
+    lengths.putInt(size);
+    lengths.putInt(dataLength);
+    lengths.flip();
+
+    PrebuiltFile.write(
+      path, PrebuiltFile.KIND_CORPUS, sourceHash,
+      lengths, entryOffsets.slice(0, size * 4), data.slice(0, dataLength)
+    );
+  }
+
+  /**
+   * @return A hash over all sources in order and the delimiter, as to detect saved corpora becoming stale
+   */
+  public static long computeSourceHash(Iterable<? extends CharSequence> sources, char delimiter) {
+    var hash = PrebuiltFile.hash(PrebuiltFile.initialHash(), delimiter);
+
+    for (var source : sources)
+      hash = PrebuiltFile.hash(hash, source);
+
+    return hash;
+  }
+
+  /**
+   * @return Id of the new entry, which is the number of entries added before it
+   */
+  public int add(CharSequence input, char delimiter) {
+    Syllables.forCharSequence(input, delimiter, parseBuffer);
+
+    var container = parseBuffer.container;
+    var containerLength = container.length();
+
+    if (containerLength > MAXIMUM_CONTAINER_LENGTH || parseBuffer.isWide())
+      throw new IllegalArgumentException("Entries are limited to " + MAXIMUM_CONTAINER_LENGTH + " characters");
+
+    var numberOfSyllables = parseBuffer.size();
+    var entryLength = 8 + numberOfSyllables * 12 + ((containerLength * 2 + 3) & ~3);
+
+    data = ensureCapacity(data, dataLength + entryLength);
+    entryOffsets = ensureCapacity(entryOffsets, (size + 1) * 4);
+
+    var offset = dataLength;
+
+    data.putInt(offset, containerLength);
+    data.putInt(offset + 4, numberOfSyllables);
+
+    var syllablesOffset = offset + 8;
+    var signaturesOffset = syllablesOffset + numberOfSyllables * 4;
+    var charsOffset = signaturesOffset + numberOfSyllables * 8;
+
+    for (var syllableIndex = 0; syllableIndex < numberOfSyllables; ++syllableIndex) {
+      data.putInt(syllablesOffset + syllableIndex * 4, parseBuffer.getSyllable(syllableIndex));
+      data.putLong(signaturesOffset + syllableIndex * 8, parseBuffer.getSignature(syllableIndex));
+    }
+
+    for (var charIndex = 0; charIndex < containerLength; ++charIndex)
+      data.putChar(charsOffset + charIndex * 2, container.charAt(charIndex));
+
+    dataLength += entryLength;
+    entryOffsets.putInt(size * 4, offset);
+
+    return size++;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return Number of bytes occupied by all entries, excluding unused capacity
+   */
+  public long getSizeInBytes() {
+    return dataLength + size * 4L;
+  }
+
+  /**
+   * Materializes the normalized container of an entry, e.g. as to display it
+   */
+  public String getContainer(int id) {
+    var offset = getEntryOffset(id);
+    var containerLength = getContainerLength(offset);
+    var charsOffset = getCharsOffset(offset);
+
+    var chars = new char[containerLength];
+
+    for (var charIndex = 0; charIndex < containerLength; ++charIndex)
+      chars[charIndex] = data.getChar(charsOffset + charIndex * 2);
+
+    return new String(chars);
+  }
+
+  int getEntryOffset(int id) {
+    if (id < 0 || id >= size)
+      throw new IndexOutOfBoundsException("Entry " + id + " out of bounds for " + size + " entries");
+
+    return entryOffsets.getInt(id * 4);
+  }
+
+  int getContainerLength(int entryOffset) {
+    return data.getInt(entryOffset);
+  }
+
+  int getNumberOfSyllables(int entryOffset) {
+    return data.getInt(entryOffset + 4);
+  }
+
+  int getSyllable(int entryOffset, int syllableIndex) {
+    return data.getInt(entryOffset + 8 + syllableIndex * 4);
+  }
+
+  long getSignature(int entryOffset, int syllableIndex) {
+    return data.getLong(entryOffset + 8 + getNumberOfSyllables(entryOffset) * 4 + syllableIndex * 8);
+  }
+
+  int getCharsOffset(int entryOffset) {
+    return entryOffset + 8 + getNumberOfSyllables(entryOffset) * 12;
+  }
+
+  /**
+   * @return A view onto the characters of all entries, with an independent position and limit; as
+   *         the data is reallocated when growing, views are to be re-acquired after adding entries
+   */
+  CharBuffer createCharView() {
+    return data.duplicate().order(PrebuiltFile.BYTE_ORDER).asCharBuffer();
+  }
+
+  /**
+   * @return The instance the data currently resides in, as to detect outdated views
+   */
+  ByteBuffer getData() {
+    return data;
+  }
+
+  private static ByteBuffer ensureCapacity(ByteBuffer buffer, int requiredCapacity) {
+    if (requiredCapacity <= buffer.capacity())
+      return buffer;
+
+    var newBuffer = allocate(Math.max(requiredCapacity, buffer.capacity() * 2));
+    newBuffer.put(0, buffer, 0, buffer.capacity());
+
+    return newBuffer;
+  }
+
+  private static ByteBuffer allocate(int capacity) {
+    return ByteBuffer.allocateDirect(capacity).order(PrebuiltFile.BYTE_ORDER);
+  }
+}
@@ -0,0 +1,95 @@
+package me.blvckbytes.syllables_matcher;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.BitSet;
+
+/*
+  Matches queries against the entries of an OffHeapCorpus in place: an entry's syllables are
+  loaded into a single reused instance, and its characters are read through a view onto the
+  corpus' memory, such that no objects are created per entry. Just like the SyllablesMatcher
+  it delegates to, instances are not thread-safe; create one per thread instead.
+ */
+public class OffHeapCorpusMatcher {
+
+  private final OffHeapCorpus corpus;
+  private final SyllablesMatcher matcher;
+  private final Syllables entrySyllables;
+
+  private ByteBuffer viewedData;
+  private CharBuffer charView;
+
+  public OffHeapCorpusMatcher(OffHeapCorpus corpus) {
+    this.corpus = corpus;
+    this.matcher = new SyllablesMatcher();
+    this.entrySyllables = new Syllables(null);
+  }
+
+  /**
+   * @return Whether no query-syllables remained unmatched on the entry of the given id
+   */
+  public boolean matches(Syllables query, int id) {
+    matcher.setQuery(query);
+    return doesQueryFullyMatch(id);
+  }
+
+  /**
+   * Matches the query against all entries in turn, analogous to {@link SyllablesMatcher#matchTargets(Syllables, Iterable, int)}
+   * @param limit Number of matches after which to stop; non-positive for no limit
+   * @return Ids of all matching entries
+   */
+  public BitSet matchEntries(Syllables query, int limit) {
+    var result = new BitSet();
+
+    matcher.setQuery(query);
+
+    var numberOfMatches = 0;
+
+    for (var id = 0; id < corpus.size(); ++id) {
+      if (!doesQueryFullyMatch(id))
+        continue;
+
+      result.set(id);
+
+      if (++numberOfMatches == limit)
+        break;
+    }
+
+    return result;
+  }
+
+  private boolean doesQueryFullyMatch(int id) {
+    var entryOffset = corpus.getEntryOffset(id);
+
+    entrySyllables.clear();
+
+    var numberOfSyllables = corpus.getNumberOfSyllables(entryOffset);
+
+    for (var syllableIndex = 0; syllableIndex < numberOfSyllables; ++syllableIndex) {
+      var syllable = corpus.getSyllable(entryOffset, syllableIndex);
+
+      entrySyllables.add(
+        Syllables.getStartIndex(syllable), Syllables.getEndIndex(syllable),
+        Syllables.isNegated(syllable), corpus.getSignature(entryOffset, syllableIndex)
+      );
+    }
+
+    if (viewedData != corpus.getData()) {
+      viewedData = corpus.getData();
+      charView = corpus.createCharView();
+    }
+
+    // Chars are two-byte aligned within the data, thus byte-offsets halve into char-offsets
+    var charsBegin = corpus.getCharsOffset(entryOffset) / 2;
+
+    charView.clear();
+    charView.position(charsBegin);
+    charView.limit(charsBegin + corpus.getContainerLength(entryOffset));
+
+    matcher.resetQueryMatches();
+    matcher.setTarget(entrySyllables, charView);
+    matcher.match();
+
+    return !matcher.hasUnmatchedQuerySyllables();
+  }
+}
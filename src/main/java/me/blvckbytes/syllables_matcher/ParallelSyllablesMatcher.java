@@ -0,0 +1,102 @@
+package me.blvckbytes.syllables_matcher;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/*
+  Matches one query against large collections of targets by splitting them into contiguous
+  chunks, each of which is matched on the executor by a SyllablesMatcher of its own. Chunks
+  are aligned to whole words of the resulting bitset, thus workers never write to the same
+  word and the result can be assembled without merging. The query and the targets are only
+  ever read, and may thereby be shared across workers.
+ */
+public class ParallelSyllablesMatcher {
+
+  public static final int DEFAULT_SEQUENTIAL_THRESHOLD = 4096;
+
+  // Multiple chunks per worker balance out chunks which take longer than others
+  private static final int CHUNKS_PER_WORKER = 4;
+  private static final int MIN_CHUNK_SIZE = 256;
+
+  private final Executor executor;
+  private final int parallelism;
+  private final int sequentialThreshold;
+
+  public ParallelSyllablesMatcher() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  public ParallelSyllablesMatcher(ForkJoinPool pool) {
+    this(pool, pool.getParallelism(), DEFAULT_SEQUENTIAL_THRESHOLD);
+  }
+
+  /**
+   * @param parallelism Number of workers the executor is able to run concurrently
+   * @param sequentialThreshold Number of targets below which matching is carried out
+   *                            sequentially on the calling thread
+   */
+  public ParallelSyllablesMatcher(Executor executor, int parallelism, int sequentialThreshold) {
+    if (parallelism <= 0)
+      throw new IllegalArgumentException("The parallelism has to be positive");
+
+    this.executor = executor;
+    this.parallelism = parallelism;
+    this.sequentialThreshold = sequentialThreshold;
+  }
+
+  public BitSet matchTargets(Syllables query, Syllables[] targets) {
+    return matchTargets(query, Arrays.asList(targets));
+  }
+
+  /**
+   * @return Indices of all targets which left no query-syllables unmatched
+   * @see SyllablesMatcher#matchTargets(Syllables, Iterable, int)
+   */
+  public BitSet matchTargets(Syllables query, List<? extends Syllables> targets) {
+    var numberOfTargets = targets.size();
+    var resultWords = new long[(numberOfTargets + (Long.SIZE - 1)) / Long.SIZE];
+
+    if (numberOfTargets == 0 || numberOfTargets < sequentialThreshold || parallelism == 1) {
+      matchChunk(query, targets, 0, numberOfTargets, resultWords);
+      return BitSet.valueOf(resultWords);
+    }
+
+    var numberOfChunks = Math.min(parallelism * CHUNKS_PER_WORKER, Math.max(1, numberOfTargets / MIN_CHUNK_SIZE));
+    var wordsPerChunk = (resultWords.length + numberOfChunks - 1) / numberOfChunks;
+    var chunkSize = wordsPerChunk * Long.SIZE;
+
+    var pendingChunks = new CompletableFuture<?>[(numberOfTargets + chunkSize - 1) / chunkSize - 1];
+
+    for (var chunkIndex = 1; chunkIndex <= pendingChunks.length; ++chunkIndex) {
+      var chunkStart = chunkIndex * chunkSize;
+      var chunkEnd = Math.min(chunkStart + chunkSize, numberOfTargets);
+
+      pendingChunks[chunkIndex - 1] = CompletableFuture.runAsync(
+        () -> matchChunk(query, targets, chunkStart, chunkEnd, resultWords),
+        executor
+      );
+    }
+
+    // Make use of the calling thread too, instead of just having it wait
+    matchChunk(query, targets, 0, Math.min(chunkSize, numberOfTargets), resultWords);
+
+    // Joining establishes a happens-before relationship with all writes of the workers
+    CompletableFuture.allOf(pendingChunks).join();
+
+    return BitSet.valueOf(resultWords);
+  }
+
+  private static void matchChunk(Syllables query, List<? extends Syllables> targets, int chunkStart, int chunkEnd, long[] resultWords) {
+    var matcher = new SyllablesMatcher();
+    matcher.setQuery(query);
+
+    for (var targetIndex = chunkStart; targetIndex < chunkEnd; ++targetIndex) {
+      if (matcher.doesQueryFullyMatch(targets.get(targetIndex)))
+        resultWords[targetIndex / Long.SIZE] |= 1L << (targetIndex % Long.SIZE);
+    }
+  }
+}
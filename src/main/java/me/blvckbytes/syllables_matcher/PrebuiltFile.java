@@ -0,0 +1,230 @@
+package me.blvckbytes.syllables_matcher;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/*
+  Versioned container for prebuilt structures, which are either mapped into memory when loading,
+  as to be served from there, or read onto the heap, as to be restored from there:
+
+    <4b magic><4b format_version><4b kind><4b reserved><8b source_hash><8b derivation_hash><body>
+
+  Files of another version, kind or source-hash are considered stale, such that callers rebuild
+  from their sources instead; all values are little-endian, as to be portable across machines.
+  As the format-version only covers the layout, the derivation-hash fingerprints how structures
+  are derived from their sources, such that a change of normalization, tokenization or indexing
+  also renders files stale, without having to remember bumping the version.
+ */
+class PrebuiltFile {
+
+  static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+  static final int KIND_CORPUS = 1;
+  static final int KIND_ENUM_MATCHER = 2;
+
+  private static final int MAGIC = 0x53594C42;
+  private static final int FORMAT_VERSION = 2;
+  private static final int HEADER_LENGTH = 32;
+
+  private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+  private static final long FNV_PRIME = 0x100000001B3L;
+
+  // Inputs which exercise Latin-1 folding, decomposition, both delimiters, wildcards, negations and colors
+  private static final String[] DERIVATION_PROBES = {
+    "Diamond-Sword-!oak-?-*", "Dark Oak Sign !wood * ?", "§aGold §x§F§F§0§0§0§0Épée-§lPick§raxe",
+    "한국어 naïve-Ærøskøbing ǅungla ﬁnal Straße", latin1Probe()
+  };
+
+  private static final long DERIVATION_HASH = computeDerivationHash();
+
+  /**
+   * Writes into a temporary file first, which is then moved into place, as to never
+   * have concurrent loaders observe a partially written file
+   */
+  static void write(Path path, int kind, long sourceHash, ByteBuffer... body) throws IOException {
+    var header = ByteBuffer.allocate(HEADER_LENGTH).order(BYTE_ORDER);
+
+    header.putInt(MAGIC);
+    header.putInt(FORMAT_VERSION);
+    header.putInt(kind);
+    header.putInt(0);
+    header.putLong(sourceHash);
+    header.putLong(DERIVATION_HASH);
+    header.flip();
+
+    var absolutePath = path.toAbsolutePath();
+    var temporaryPath = Files.createTempFile(absolutePath.getParent(), absolutePath.getFileName().toString(), ".tmp");
+
+    try {
+      try (var channel = FileChannel.open(temporaryPath, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+        writeFully(channel, header);
+
+        for (var bodyPart : body)
+          writeFully(channel, bodyPart.duplicate());
+      }
+
+      Files.move(temporaryPath, absolutePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporaryPath);
+    }
+  }
+
+  /**
+   * For structures which are served from the file's memory, see {@link #read(Path, int, long)} otherwise
+   * @return The body of the mapped file, or null if it does not exist or is stale
+   */
+  static @Nullable ByteBuffer map(Path path, int kind, long sourceHash) throws IOException {
+    if (!Files.isRegularFile(path))
+      return null;
+
+    ByteBuffer mapped;
+
+    try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() < HEADER_LENGTH || channel.size() > Integer.MAX_VALUE)
+        return null;
+
+      // Mappings remain valid after closing the channel
+      mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(BYTE_ORDER);
+    }
+
+    return getBodyIfCurrent(mapped, kind, sourceHash);
+  }
+
+  /**
+   * For structures which are restored onto the heap anyway, where mapping would gain nothing
+   * @return The body of the read file, or null if it does not exist or is stale
+   */
+  static @Nullable ByteBuffer read(Path path, int kind, long sourceHash) throws IOException {
+    if (!Files.isRegularFile(path))
+      return null;
+
+    var contents = ByteBuffer.wrap(Files.readAllBytes(path)).order(BYTE_ORDER);
+
+    if (contents.limit() < HEADER_LENGTH)
+      return null;
+
+    return getBodyIfCurrent(contents, kind, sourceHash);
+  }
+
+  private static @Nullable ByteBuffer getBodyIfCurrent(ByteBuffer contents, int kind, long sourceHash) {
+    if (contents.getInt(0) != MAGIC || contents.getInt(4) != FORMAT_VERSION || contents.getInt(8) != kind)
+      return null;
+
+    if (contents.getLong(16) != sourceHash || contents.getLong(24) != DERIVATION_HASH)
+      return null;
+
+    return contents.position(HEADER_LENGTH).slice().order(BYTE_ORDER);
+  }
+
+  static int getStringLength(String value) {
+    return 4 + value.length() * 2;
+  }
+
+  static void putString(ByteBuffer buffer, String value) {
+    buffer.putInt(value.length());
+
+    for (var charIndex = 0; charIndex < value.length(); ++charIndex)
+      buffer.putChar(value.charAt(charIndex));
+  }
+
+  static String getString(ByteBuffer buffer) {
+    var chars = new char[buffer.getInt()];
+
+    for (var charIndex = 0; charIndex < chars.length; ++charIndex)
+      chars[charIndex] = buffer.getChar();
+
+    return new String(chars);
+  }
+
+  static long hash(long hash, CharSequence value) {
+    hash = hash(hash, value.length());
+
+    for (var charIndex = 0; charIndex < value.length(); ++charIndex)
+      hash = hash(hash, value.charAt(charIndex));
+
+    return hash;
+  }
+
+  static long hash(long hash, int value) {
+    return (hash ^ value) * FNV_PRIME;
+  }
+
+  /**
+   * Spreads the bits of a hash, such that hashes may be summed without their order mattering
+   */
+  static long mix(long hash) {
+    hash ^= hash >>> 33;
+    hash *= 0xFF51AFD7ED558CCDL;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+  static long initialHash() {
+    return FNV_OFFSET_BASIS;
+  }
+
+  /**
+   * Hashes what the probes are derived into, i.e. normalized containers, syllables, signatures and
+   * the index built from them; as such, it only changes if derivation itself has changed.
+   */
+  private static long computeDerivationHash() {
+    var hash = initialHash();
+    var entries = new Syllables[DERIVATION_PROBES.length * 2];
+    var numberOfEntries = 0;
+
+    for (var probe : DERIVATION_PROBES) {
+      for (var delimiter : new char[] { Syllables.DELIMITER_SEARCH_PATTERN, Syllables.DELIMITER_FREE_TEXT }) {
+        var syllables = Syllables.forStringWithWildcardSupport(probe, delimiter).syllables();
+
+        hash = hash(hash, syllables.container);
+        hash = hash(hash, syllables.getWildcardMode().ordinal());
+
+        for (var syllableIndex = 0; syllableIndex < syllables.size(); ++syllableIndex) {
+          var syllable = syllables.getSyllable(syllableIndex);
+          var signature = syllables.getSignature(syllableIndex);
+
+          hash = hash(hash, syllables.getStartIndexOf(syllable));
+          hash = hash(hash, syllables.getEndIndexOf(syllable));
+          hash = hash(hash, Syllables.isNegated(syllable) ? 1 : 0);
+          hash = hash(hash, (int) (signature >>> 32));
+          hash = hash(hash, (int) signature);
+        }
+
+        entries[numberOfEntries++] = syllables;
+      }
+    }
+
+    var index = new NGramIndex(entries);
+    var serializedIndex = ByteBuffer.allocate(index.getSerializedLength()).order(BYTE_ORDER);
+
+    index.writeTo(serializedIndex);
+    serializedIndex.flip();
+
+    while (serializedIndex.hasRemaining())
+      hash = hash(hash, serializedIndex.get());
+
+    return hash;
+  }
+
+  private static String latin1Probe() {
+    var result = new StringBuilder();
+
+    for (var c = ' '; c <= '\u00FF'; ++c)
+      result.append(c);
+
+    return result.toString();
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining())
+      channel.write(buffer);
+  }
+}
@@ -0,0 +1,102 @@
+package me.blvckbytes.syllables_matcher;
+
+/*
+  Retains the best k of all offered items by a bounded min-heap, whose root is the worst item
+  retained so far; thereby, neither all items need to be held nor sorted. Higher scores are
+  better, and equal scores are ranked by their lower index, as to retain the original order.
+ */
+class RankedSelection {
+
+  private final long[] scores;
+  private final int[] indices;
+  private int size;
+
+  RankedSelection(int capacity) {
+    this.scores = new long[capacity];
+    this.indices = new int[capacity];
+  }
+
+  void offer(long score, int index) {
+    if (size < scores.length) {
+      scores[size] = score;
+      indices[size] = index;
+      siftUp(size++);
+      return;
+    }
+
+    if (size == 0 || !isWorse(scores[0], indices[0], score, index))
+      return;
+
+    scores[0] = score;
+    indices[0] = index;
+    siftDown(0);
+  }
+
+  /**
+   * Empties the selection into the provided array
+   * @return The number of indices written, ordered from best to worst
+   */
+  int drainBestFirst(int[] output) {
+    var numberOfItems = size;
+
+    while (size > 0) {
+      output[size - 1] = indices[0];
+
+      --size;
+      scores[0] = scores[size];
+      indices[0] = indices[size];
+      siftDown(0);
+    }
+
+    return numberOfItems;
+  }
+
+  private void siftUp(int position) {
+    while (position > 0) {
+      var parent = (position - 1) / 2;
+
+      if (!isWorse(scores[position], indices[position], scores[parent], indices[parent]))
+        return;
+
+      swap(position, parent);
+      position = parent;
+    }
+  }
+
+  private void siftDown(int position) {
+    while (true) {
+      var worst = position;
+      var left = position * 2 + 1;
+      var right = left + 1;
+
+      if (left < size && isWorse(scores[left], indices[left], scores[worst], indices[worst]))
+        worst = left;
+
+      if (right < size && isWorse(scores[right], indices[right], scores[worst], indices[worst]))
+        worst = right;
+
+      if (worst == position)
+        return;
+
+      swap(position, worst);
+      position = worst;
+    }
+  }
+
+  private void swap(int a, int b) {
+    var score = scores[a];
+    scores[a] = scores[b];
+    scores[b] = score;
+
+    var index = indices[a];
+    indices[a] = indices[b];
+    indices[b] = index;
+  }
+
+  private static boolean isWorse(long score, int index, long otherScore, int otherIndex) {
+    if (score != otherScore)
+      return score < otherScore;
+
+    return index > otherIndex;
+  }
+}
@@ -0,0 +1,34 @@
+package me.blvckbytes.syllables_matcher;
+
+class ScalarCharScanKernel implements CharScanKernel {
+
+  static final ScalarCharScanKernel INSTANCE = new ScalarCharScanKernel();
+
+  @Override
+  public int indexOf(char[] haystack, int fromIndex, int toIndex, char[] needle, int needleStart, int needleLength) {
+    var firstNeedleChar = needle[needleStart];
+    var lastNeedleChar = needle[needleStart + needleLength - 1];
+
+    var highestOffset = toIndex - needleLength;
+
+    // Scan for the first and last needle-character, which rejects most offsets without
+    // having to compare the characters in between, like String#indexOf does
+    offsets:
+    for (var offset = fromIndex; offset <= highestOffset; ++offset) {
+      if (haystack[offset] != firstNeedleChar)
+        continue;
+
+      if (haystack[offset + needleLength - 1] != lastNeedleChar)
+        continue;
+
+      for (var needleOffset = 1; needleOffset < needleLength - 1; ++needleOffset) {
+        if (haystack[offset + needleOffset] != needle[needleStart + needleOffset])
+          continue offsets;
+      }
+
+      return offset;
+    }
+
+    return -1;
+  }
+}
@@ -1,6 +1,10 @@
 package me.blvckbytes.syllables_matcher;
 
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.CharBuffer;
 import java.text.Normalizer;
+import java.util.Arrays;
 
 public class Syllables {
 
@@ -12,11 +16,21 @@ public class Syllables {
   private static final char PATTERN_NEGATION_CHAR = '!';
 
   private static final int INITIAL_CAPACITY = 32;
+  private static final int BIT_IS_WIDE      = (1 << 0);
   private static final int BIT_IS_NEGATED   = (1 << 1);
   private static final int START_END_MASK   = 32768 - 1;
 
+  /**
+   * Signature of syllables whose characters are unknown, which thereby never cause a rejection
+   */
+  public static final long UNKNOWN_SIGNATURE = -1L;
+
   private static final char[] RAPID_LOWERCASE_CACHE = new char[128];
 
+  // Latin-1 characters folded just like the Normalizer-based path would; NO_FOLDING if not expressible as a single char
+  private static final char[] LATIN_1_FOLDING_TABLE = new char[256];
+  private static final char NO_FOLDING = '\uFFFF';
+
   static {
     int n = 0;
 
@@ -24,31 +38,164 @@ public class Syllables {
       RAPID_LOWERCASE_CACHE[n] = Character.toLowerCase((char) n);
       ++n;
     }
+
+    for (n = 0; n < LATIN_1_FOLDING_TABLE.length; ++n) {
+      var folded = stripDiacriticalMarksAndLowerByNormalizer(String.valueOf((char) n));
+      LATIN_1_FOLDING_TABLE[n] = folded.length() == 1 ? folded.charAt(0) : NO_FOLDING;
+    }
   }
 
 
   /*
-    <15b start><15b end><1b is_negated><1b unused>
+    Compact: <15b start><15b end><1b is_negated><1b is_wide=0>
+    Wide:    <30b index><1b is_negated><1b is_wide=1>
+
+    Once an index exceeds the range of the compact encoding, all syllables are converted into
+    handles to the parallel arrays of start- and end-indices, which is transparent to callers
+    as long as they decode by the instance-accessors, e.g. #getStartIndexOf.
    */
   private int[] syllables;
   private int size;
 
+  private boolean wide;
+  private int[] wideStartIndices;
+  private int[] wideEndIndices;
+
+  /*
+    Character-presence signatures by syllable-index, where each character sets bit (c mod 64); if a
+    query's signature has a bit which a target's lacks, the target cannot possibly contain the query.
+    Only allocated once a known signature is added, as all others are UNKNOWN_SIGNATURE.
+   */
+  private long[] signatures;
+
   public String container;
   private WildcardMode wildcardMode;
 
+  // Color-free view of frozen, colored containers, built once and shared by all matchers this instance is a target of
+  private volatile @Nullable TargetView targetView;
+  private volatile boolean isKnownUncolored;
+
+  private final boolean frozen;
+
+  // Scratch-space of the streaming parser, retained by instances which are being parsed into repeatedly
+  private char[] parseBuffer;
+
   public Syllables(String container) {
     this.container = stripDiacriticalMarksAndLower(container);
     this.wildcardMode = WildcardMode.NONE;
     this.syllables = new int[INITIAL_CAPACITY];
+    this.frozen = false;
+  }
+
+  private Syllables(Syllables source) {
+    this.container = source.container;
+    this.wildcardMode = source.wildcardMode;
+    this.syllables = Arrays.copyOf(source.syllables, source.size);
+    this.size = source.size;
+    this.frozen = true;
+
+    if (source.signatures != null)
+      this.signatures = Arrays.copyOf(source.signatures, source.size);
+
+    if (source.wide) {
+      this.wide = true;
+      this.wideStartIndices = Arrays.copyOf(source.wideStartIndices, source.size);
+      this.wideEndIndices = Arrays.copyOf(source.wideEndIndices, source.size);
+    }
+  }
+
+  /**
+   * Creates an immutable copy whose backing array is trimmed to the exact number of syllables,
+   * which may be shared freely, e.g. as a target of multiple matchers across threads. The
+   * container is not to be reassigned on frozen instances. As strings store Latin-1 content
+   * at one byte per character already, the container is kept as-is.
+   * @return This very instance if already frozen, a frozen copy otherwise
+   */
+  public Syllables freeze() {
+    if (frozen)
+      return this;
+
+    return new Syllables(this);
+  }
+
+  public boolean isFrozen() {
+    return frozen;
+  }
+
+  /**
+   * Views are immutable once built; concurrent first accesses may each build one, of which
+   * either is published, as they're equal. Only frozen containers are never reassigned, and
+   * only colored ones require maps, thus all others are not worth retaining a copy of.
+   * @return The shared view, or null if the container is to be viewed within a matcher's scratch-space
+   */
+  @Nullable TargetView getTargetView() {
+    if (!frozen || isKnownUncolored)
+      return null;
+
+    var view = targetView;
+
+    if (view != null)
+      return view;
+
+    var currentContainer = container;
+
+    if (currentContainer == null || currentContainer.indexOf('§') < 0) {
+      isKnownUncolored = true;
+      return null;
+    }
+
+    view = new TargetView(currentContainer.length());
+    view.load(currentContainer);
+
+    targetView = view;
+    return view;
   }
 
   public Syllables add(int start, int end, boolean isNegated) {
+    return add(start, end, isNegated, UNKNOWN_SIGNATURE);
+  }
+
+  /**
+   * @param signature Character-presence signature of the syllable, see {@link #computeSignature(CharSequence, int, int)}
+   */
+  public Syllables add(int start, int end, boolean isNegated, long signature) {
+    ensureNotFrozen();
+
     if (syllables.length == size) {
       var newArray = new int[syllables.length * 2];
       System.arraycopy(syllables, 0, newArray, 0, syllables.length);
       syllables = newArray;
     }
 
+    if (signatures == null && signature != UNKNOWN_SIGNATURE) {
+      signatures = new long[syllables.length];
+      Arrays.fill(signatures, UNKNOWN_SIGNATURE);
+    }
+
+    if (signatures != null) {
+      if (signatures.length < syllables.length) {
+        var previousLength = signatures.length;
+        signatures = Arrays.copyOf(signatures, syllables.length);
+        Arrays.fill(signatures, previousLength, signatures.length, UNKNOWN_SIGNATURE);
+      }
+
+      signatures[size] = signature;
+    }
+
+    if (!wide && (start > START_END_MASK || end > START_END_MASK))
+      convertToWide();
+
+    if (wide) {
+      ensureWideCapacity();
+
+      wideStartIndices[size] = start;
+      wideEndIndices[size] = end;
+      syllables[size] = (size << 2) | (isNegated ? BIT_IS_NEGATED : 0) | BIT_IS_WIDE;
+
+      ++size;
+      return this;
+    }
+
     syllables[size++] = (
       (isNegated ? BIT_IS_NEGATED : 0) |
       ((end & START_END_MASK) << 2) |
@@ -58,6 +205,34 @@ public class Syllables {
     return this;
   }
 
+  private void convertToWide() {
+    wide = true;
+    ensureWideCapacity();
+
+    for (var index = 0; index < size; ++index) {
+      var syllable = syllables[index];
+
+      wideStartIndices[index] = getStartIndex(syllable);
+      wideEndIndices[index] = getEndIndex(syllable);
+      syllables[index] = (index << 2) | (syllable & BIT_IS_NEGATED) | BIT_IS_WIDE;
+    }
+  }
+
+  private void ensureWideCapacity() {
+    if (wideStartIndices != null && wideStartIndices.length >= syllables.length)
+      return;
+
+    wideStartIndices = wideStartIndices == null ? new int[syllables.length] : Arrays.copyOf(wideStartIndices, syllables.length);
+    wideEndIndices = wideEndIndices == null ? new int[syllables.length] : Arrays.copyOf(wideEndIndices, syllables.length);
+  }
+
+  /**
+   * @return Whether syllables are stored as handles, due to an index exceeding the compact encoding
+   */
+  public boolean isWide() {
+    return wide;
+  }
+
   public WildcardMode getWildcardMode() {
     return this.wildcardMode;
   }
@@ -70,26 +245,99 @@ public class Syllables {
     return size;
   }
 
+  /**
+   * @return The character-presence signature of the syllable at the given index, or {@link #UNKNOWN_SIGNATURE}
+   */
+  public long getSignature(int index) {
+    if (signatures == null)
+      return UNKNOWN_SIGNATURE;
+
+    return signatures[index];
+  }
+
+  /**
+   * @param start Inclusive index of the first character
+   * @param end Inclusive index of the last character
+   */
+  public static long computeSignature(CharSequence container, int start, int end) {
+    var signature = 0L;
+
+    // Shifts only take the lower six bits of the distance into account
+    for (var index = start; index <= end; ++index)
+      signature |= 1L << container.charAt(index);
+
+    return signature;
+  }
+
+  private static long computeSignature(char[] buffer, int start, int end) {
+    var signature = 0L;
+
+    for (var index = start; index <= end; ++index)
+      signature |= 1L << buffer[index];
+
+    return signature;
+  }
+
   public int capacity() {
     return syllables.length;
   }
 
   public void clear() {
+    ensureNotFrozen();
     this.size = 0;
+
+    // Retain the wide arrays, as containers of similar length are likely to follow
+    this.wide = false;
+  }
+
+  private void ensureNotFrozen() {
+    if (frozen)
+      throw new IllegalStateException("Cannot modify frozen syllables");
+  }
+
+  public int getStartIndexOf(int syllable) {
+    if ((syllable & BIT_IS_WIDE) != 0)
+      return wideStartIndices[syllable >>> 2];
+
+    return getStartIndex(syllable);
+  }
+
+  public int getEndIndexOf(int syllable) {
+    if ((syllable & BIT_IS_WIDE) != 0)
+      return wideEndIndices[syllable >>> 2];
+
+    return getEndIndex(syllable);
   }
 
+  public int getLengthOf(int syllable) {
+    return (getEndIndexOf(syllable) - getStartIndexOf(syllable)) + 1;
+  }
+
+  /**
+   * Decodes compact syllables only, as wide syllables are mere handles into their holder, which yields
+   * wrong indices without any error; use {@link #getStartIndexOf(int)} if the holder may be wide.
+   */
   public static int getStartIndex(int syllable) {
     return (syllable >> (15 + 2)) & START_END_MASK;
   }
 
+  /**
+   * Decodes compact syllables only; use {@link #getEndIndexOf(int)} if the holder may be wide.
+   */
   public static int getEndIndex(int syllable) {
     return (syllable >> 2) & START_END_MASK;
   }
 
+  /**
+   * Decodes compact syllables only; use {@link #getLengthOf(int)} if the holder may be wide.
+   */
   public static int getLength(int syllable) {
     return (getEndIndex(syllable) - getStartIndex(syllable)) + 1;
   }
 
+  /**
+   * Decodes compact as well as wide syllables, as both encodings carry this flag in place
+   */
   public static boolean isNegated(int syllable) {
     return (syllable & BIT_IS_NEGATED) != 0;
   }
@@ -102,66 +350,229 @@ public class Syllables {
     return forString(input, delimiter, true);
   }
 
+  /**
+   * Parses the input into an existing instance, as to reuse its backing arrays; wildcards are not
+   * supported. Normalization and tokenization happen within a single pass over the input, such that
+   * the only copy ever made is the resulting container itself, which is skipped entirely if a string
+   * is passed which is already normalized.
+   */
+  public static void forCharSequence(CharSequence input, char delimiter, Syllables result) {
+    result.clear();
+    result.wildcardMode = WildcardMode.NONE;
+    normalizeAndParse(input, delimiter, false, result);
+  }
+
+  /**
+   * Parses a region of the provided array without copying it beforehand; see {@link #forCharSequence(CharSequence, char, Syllables)}
+   */
+  public static void forCharArray(char[] input, int offset, int length, char delimiter, Syllables result) {
+    forCharSequence(CharBuffer.wrap(input, offset, length), delimiter, result);
+  }
+
+  /**
+   * Parses into an existing instance just like {@link #forCharSequence(CharSequence, char, Syllables)}, while supporting wildcards
+   * @return <32b number_of_wildcard_syllables><32b number_of_non_wildcard_syllables>
+   */
+  static long forStringWithWildcardSupport(String input, char delimiter, Syllables result) {
+    result.clear();
+    result.wildcardMode = WildcardMode.NONE;
+    return normalizeAndParse(input, delimiter, true, result);
+  }
+
   private static SyllablesAndCounters forString(String input, char delimiter, boolean supportsWildcard) {
-    var result = new Syllables(input);
+    var result = new Syllables((String) null);
+    var counters = normalizeAndParse(input, delimiter, supportsWildcard, result);
+
+    // One-off instances have no use for keeping the scratch-buffer around
+    result.parseBuffer = null;
+
+    return new SyllablesAndCounters(result, (int) (counters >> 32), (int) counters);
+  }
+
+  /**
+   * Normalizes the input into the parse-buffer of the result while tokenizing all characters
+   * which have been emitted so far, such that syllable-indices relate to the normalized container.
+   * @return <32b number_of_wildcard_syllables><32b number_of_non_wildcard_syllables>
+   */
+  private static long normalizeAndParse(CharSequence input, char delimiter, boolean supportsWildcard, Syllables result) {
     var inputLength = input.length();
+    var buffer = result.ensureParseBuffer(inputLength);
 
-    int nextPartBeginning = 0;
+    var inputIndex = 0;
+    var bufferLength = 0;
+    var tokenizedLength = 0;
+    var isInputUnchanged = true;
 
-    int numberOfWildcardSyllables = 0;
-    int numberOfNonWildcardSyllables = 0;
+    var partBeginning = -1;
+    var counters = 0L;
 
-    boolean encounteredNonDelimiter = false;
+    while (inputIndex < inputLength) {
+      var currentChar = input.charAt(inputIndex);
 
-    for (int i = 0; i < inputLength; ++i) {
-      var currentChar = input.charAt(i);
-      var isDelimiter = currentChar == delimiter;
+      if (isFoldableByTable(currentChar)) {
+        var foldedChar = LATIN_1_FOLDING_TABLE[currentChar];
 
-      if (!isDelimiter) {
-        encounteredNonDelimiter = true;
+        if (foldedChar != currentChar)
+          isInputUnchanged = false;
 
-        if (i != inputLength - 1)
-          continue;
+        buffer[bufferLength++] = foldedChar;
+        ++inputIndex;
       }
 
-      if (encounteredNonDelimiter) {
-        var firstChar = input.charAt(nextPartBeginning);
-        var partEnd = isDelimiter ? i - 1 : i;
+      else {
+        var runEnd = inputIndex + 1;
 
-        if (nextPartBeginning != partEnd && firstChar == PATTERN_NEGATION_CHAR) {
-          result.add(nextPartBeginning + 1, partEnd, true);
-          ++numberOfNonWildcardSyllables;
-        }
+        while (runEnd < inputLength && !isFoldableByTable(input.charAt(runEnd)))
+          ++runEnd;
+
+        // Runs of characters outside of Latin-1 are rare enough to not warrant avoiding an intermediate copy
+        var normalized = Normalizer.normalize(CharBuffer.wrap(input, inputIndex, runEnd), Normalizer.Form.NFD);
+
+        // Decompositions may expand, thus reserve room for the remaining input as well, as Latin-1 is written unchecked
+        var requiredLength = bufferLength + normalized.length() + (inputLength - runEnd);
+
+        if (requiredLength > buffer.length)
+          buffer = result.ensureParseBuffer(Math.max(buffer.length * 2, requiredLength));
 
-        else if (supportsWildcard && nextPartBeginning == partEnd && firstChar == PATTERN_WILDCARD_CHAR_EXCLUDING_EXACT) {
-          ++numberOfWildcardSyllables;
-          result.wildcardMode = WildcardMode.EXCLUDING_EXACT_MATCH;
+        for (var normalizedIndex = 0; normalizedIndex < normalized.length(); ++normalizedIndex) {
+          var normalizedChar = normalized.charAt(normalizedIndex);
+
+          if (Character.getType(normalizedChar) != Character.NON_SPACING_MARK)
+            buffer[bufferLength++] = charToLower(normalizedChar);
         }
 
-        else if (supportsWildcard && nextPartBeginning == partEnd && firstChar == PATTERN_WILDCARD_CHAR_INCLUDING_EXACT) {
-          ++numberOfWildcardSyllables;
-          result.wildcardMode = WildcardMode.INCLUDING_EXACT_MATCH;
+        isInputUnchanged = false;
+        inputIndex = runEnd;
+      }
+
+      for (; tokenizedLength < bufferLength; ++tokenizedLength) {
+        if (buffer[tokenizedLength] != delimiter) {
+          if (partBeginning < 0)
+            partBeginning = tokenizedLength;
+
+          continue;
         }
 
-        else {
-          result.add(nextPartBeginning, partEnd, false);
-          ++numberOfNonWildcardSyllables;
+        if (partBeginning >= 0) {
+          counters += addPart(buffer, partBeginning, tokenizedLength - 1, supportsWildcard, result);
+          partBeginning = -1;
         }
       }
+    }
+
+    if (partBeginning >= 0)
+      counters += addPart(buffer, partBeginning, bufferLength - 1, supportsWildcard, result);
+
+    if (isInputUnchanged && input instanceof String inputString)
+      result.container = inputString;
+    else
+      result.container = new String(buffer, 0, bufferLength);
+
+    return counters;
+  }
 
-      nextPartBeginning = i + 1;
-      encounteredNonDelimiter = false;
+  /**
+   * @return The value to add onto the packed counters, see {@link #normalizeAndParse(CharSequence, char, boolean, Syllables)}
+   */
+  private static long addPart(char[] buffer, int partBeginning, int partEnd, boolean supportsWildcard, Syllables result) {
+    var firstChar = buffer[partBeginning];
+
+    if (partBeginning != partEnd && firstChar == PATTERN_NEGATION_CHAR) {
+      result.add(partBeginning + 1, partEnd, true, computeSignature(buffer, partBeginning + 1, partEnd));
+      return 1;
+    }
+
+    if (supportsWildcard && partBeginning == partEnd && firstChar == PATTERN_WILDCARD_CHAR_EXCLUDING_EXACT) {
+      result.wildcardMode = WildcardMode.EXCLUDING_EXACT_MATCH;
+      return 1L << 32;
+    }
+
+    if (supportsWildcard && partBeginning == partEnd && firstChar == PATTERN_WILDCARD_CHAR_INCLUDING_EXACT) {
+      result.wildcardMode = WildcardMode.INCLUDING_EXACT_MATCH;
+      return 1L << 32;
+    }
+
+    result.add(partBeginning, partEnd, false, computeSignature(buffer, partBeginning, partEnd));
+    return 1;
+  }
+
+  private char[] ensureParseBuffer(int minimumLength) {
+    if (parseBuffer == null || parseBuffer.length < minimumLength) {
+      var newBuffer = new char[Math.max(minimumLength, INITIAL_CAPACITY)];
+
+      if (parseBuffer != null)
+        System.arraycopy(parseBuffer, 0, newBuffer, 0, parseBuffer.length);
+
+      parseBuffer = newBuffer;
     }
 
-    return new SyllablesAndCounters(result, numberOfWildcardSyllables, numberOfNonWildcardSyllables);
+    return parseBuffer;
+  }
+
+  /**
+   * @return The input in the very form the container of a {@link Syllables} instance would hold it
+   */
+  static String normalize(String input) {
+    return stripDiacriticalMarksAndLower(input);
   }
 
   private static String stripDiacriticalMarksAndLower(String input) {
     if (input == null)
       return null;
 
+    var inputLength = input.length();
+    var charIndex = 0;
+
+    // Most inputs are made up of Latin-1 characters only, which can be folded one by one without decomposing
+    // them first; as long as no character changes, the input may even be handed back as is.
+    for (; charIndex < inputLength; ++charIndex) {
+      var currentChar = input.charAt(charIndex);
+
+      if (currentChar >= LATIN_1_FOLDING_TABLE.length || LATIN_1_FOLDING_TABLE[currentChar] != currentChar)
+        break;
+    }
+
+    if (charIndex == inputLength)
+      return input;
+
+    var resultBuilder = new StringBuilder(inputLength);
+    resultBuilder.append(input, 0, charIndex);
+
+    while (charIndex < inputLength) {
+      var currentChar = input.charAt(charIndex);
+
+      if (isFoldableByTable(currentChar)) {
+        resultBuilder.append(LATIN_1_FOLDING_TABLE[currentChar]);
+        ++charIndex;
+        continue;
+      }
+
+      // Latin-1 characters are starters which neither decompose into nor reorder with marks
+      // of other characters, thus everything in between them may be normalized on its own.
+      var runEnd = charIndex + 1;
+
+      while (runEnd < inputLength && !isFoldableByTable(input.charAt(runEnd)))
+        ++runEnd;
+
+      appendStrippedByNormalizer(input.substring(charIndex, runEnd), resultBuilder);
+      charIndex = runEnd;
+    }
+
+    return resultBuilder.toString();
+  }
+
+  private static boolean isFoldableByTable(char c) {
+    return c < LATIN_1_FOLDING_TABLE.length && LATIN_1_FOLDING_TABLE[c] != NO_FOLDING;
+  }
+
+  private static String stripDiacriticalMarksAndLowerByNormalizer(String input) {
+    var resultBuilder = new StringBuilder(input.length());
+    appendStrippedByNormalizer(input, resultBuilder);
+    return resultBuilder.toString();
+  }
+
+  private static void appendStrippedByNormalizer(String input, StringBuilder resultBuilder) {
     var normalized = Normalizer.normalize(input, Normalizer.Form.NFD);
-    var resultBuilder = new StringBuilder(normalized.length());
 
     for (var index = 0; index < normalized.length(); index++) {
       var currentChar = normalized.charAt(index);
@@ -171,8 +582,6 @@ public class Syllables {
 
       resultBuilder.append(charToLower(currentChar));
     }
-
-    return resultBuilder.toString();
   }
 
   private static char charToLower(char c) {
@@ -3,6 +3,7 @@ package me.blvckbytes.syllables_matcher;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Arrays;
+import java.util.BitSet;
 
 /*
   Target: Syllables which are matched against; if a query-syllable is contained within a
@@ -24,11 +25,50 @@ public class SyllablesMatcher {
   private @Nullable Syllables target;
   private long[] targetMatchedFlags;
 
+  // Either the view shared by the target, or the scratch-view if the target does not retain one
+  private TargetView targetView;
+  private final TargetView scratchView;
+
   private @Nullable Syllables query;
   private long[] queryMatchedFlags;
 
+  // The query's container as an array, as kernels operate on arrays only; reloaded whenever the container changes
+  private final CharScanKernel scanKernel;
+  private char[] queryChars;
+  private @Nullable String loadedQueryContainer;
+
+  // Only consulted for query-syllables which did not match exactly, see setMaximumEditDistance
+  private final EditDistanceScanner editDistanceScanner;
+  private int maximumEditDistance;
+
+  // Maintained alongside the flags, as to answer whether anything remains unmatched in constant time
+  private int numberOfUnmatchedQuerySyllables;
+  private int numberOfUnmatchedTargetSyllables;
+  private int numberOfUnmatchedTargetRemainders;
+
+  // Statistics about how the query matched the current target, as to rank targets by
+  private int numberOfExactMatches;
+  private int numberOfPrefixMatches;
+  private int numberOfContiguousMatches;
+  private int numberOfFuzzyMatches;
+  private int lastMatchedTargetSyllableIndex;
+
+  // Running totals of the work performed, which are never reset, as to be sampled by differences
+  private long numberOfTargets;
+  private long numberOfIndexOfInvocations;
+  private long numberOfRemainders;
+
   public SyllablesMatcher() {
+    this(CharScanKernel.SELECTED);
+  }
+
+  SyllablesMatcher(CharScanKernel scanKernel) {
+    this.scanKernel = scanKernel;
+    this.queryChars = new char[0];
+    this.editDistanceScanner = new EditDistanceScanner();
     this.targetRemainders = new Syllables(null);
+    this.scratchView = new TargetView();
+    this.targetView = scratchView;
     this.targetRemaindersMatchedFlags = new long[this.targetRemainders.capacity()];
   }
 
@@ -37,6 +77,7 @@ public class SyllablesMatcher {
       return;
 
     Arrays.fill(this.queryMatchedFlags, 0);
+    this.numberOfUnmatchedQuerySyllables = query.size();
   }
 
   public void setQuery(Syllables query) {
@@ -44,10 +85,30 @@ public class SyllablesMatcher {
 
     var numberLongs = requiredLongs(query.size());
 
-    if (this.queryMatchedFlags != null && numberLongs == this.queryMatchedFlags.length)
+    if (this.queryMatchedFlags != null && numberLongs <= this.queryMatchedFlags.length)
       Arrays.fill(this.queryMatchedFlags, 0);
     else
       this.queryMatchedFlags = new long[numberLongs];
+
+    this.numberOfUnmatchedQuerySyllables = query.size();
+  }
+
+  /**
+   * Lets query-syllables which did not match exactly match within the given number of edits (insertions,
+   * deletions or substitutions) instead, as to tolerate typos. Short syllables would match nearly anything
+   * that way, thus they're allowed less than half of their length in edits; negated syllables as well as
+   * syllables longer than 64 characters always need to match exactly.
+   * @param maximumEditDistance Zero to only match exactly, which is the default
+   */
+  public void setMaximumEditDistance(int maximumEditDistance) {
+    if (maximumEditDistance < 0)
+      throw new IllegalArgumentException("The maximum edit-distance cannot be negative");
+
+    this.maximumEditDistance = maximumEditDistance;
+  }
+
+  public int getMaximumEditDistance() {
+    return maximumEditDistance;
   }
 
   public @Nullable Syllables getQuery() {
@@ -63,14 +124,28 @@ public class SyllablesMatcher {
     targetRemainders.clear();
 
     Arrays.fill(targetRemaindersMatchedFlags, 0);
+
+    numberOfUnmatchedTargetSyllables = target.size();
+    numberOfUnmatchedTargetRemainders = 0;
+
+    resetMatchStatistics();
   }
 
   public void setTarget(Syllables target) {
+    setTarget(target, target.container);
+  }
+
+  /**
+   * Sets a target whose characters are not held by its container, e.g. as they reside off-heap;
+   * remainders of such targets have no container, thus they cannot be rendered as strings.
+   */
+  void setTarget(Syllables target, @Nullable CharSequence container) {
     this.target = target;
+    ++numberOfTargets;
 
     var numberLongs = requiredLongs(target.size());
 
-    if (this.targetMatchedFlags != null && numberLongs == this.targetMatchedFlags.length)
+    if (this.targetMatchedFlags != null && numberLongs <= this.targetMatchedFlags.length)
       Arrays.fill(this.targetMatchedFlags, 0);
     else
       this.targetMatchedFlags = new long[numberLongs];
@@ -78,7 +153,34 @@ public class SyllablesMatcher {
     targetRemainders.clear();
     targetRemainders.container = target.container;
 
+    var sharedView = container == target.container ? target.getTargetView() : null;
+
+    if (sharedView != null)
+      targetView = sharedView;
+
+    else {
+      if (container instanceof String || container == null)
+        scratchView.load((String) container);
+      else
+        scratchView.loadSequence(container);
+
+      targetView = scratchView;
+    }
+
     Arrays.fill(targetRemaindersMatchedFlags, 0);
+
+    numberOfUnmatchedTargetSyllables = target.size();
+    numberOfUnmatchedTargetRemainders = 0;
+
+    resetMatchStatistics();
+  }
+
+  private void resetMatchStatistics() {
+    numberOfExactMatches = 0;
+    numberOfPrefixMatches = 0;
+    numberOfContiguousMatches = 0;
+    numberOfFuzzyMatches = 0;
+    lastMatchedTargetSyllableIndex = -2;
   }
 
   public @Nullable Syllables getTarget() {
@@ -89,7 +191,7 @@ public class SyllablesMatcher {
     if (query == null)
       return false;
 
-    return hasUnmatchedBits(queryMatchedFlags, query.size());
+    return numberOfUnmatchedQuerySyllables != 0;
   }
 
   public void forEachUnmatchedTargetSyllable(UnmatchedSyllableConsumer consumer) {
@@ -108,10 +210,7 @@ public class SyllablesMatcher {
     if (target == null)
       return false;
 
-    return (
-      hasUnmatchedBits(targetMatchedFlags, target.size()) ||
-      hasUnmatchedBits(targetRemaindersMatchedFlags, targetRemainders.size())
-    );
+    return numberOfUnmatchedTargetSyllables + numberOfUnmatchedTargetRemainders != 0;
   }
 
   @SuppressWarnings("UnusedReturnValue")
@@ -119,114 +218,317 @@ public class SyllablesMatcher {
     if (query == null || target == null)
       throw new IllegalStateException("Cannot match on a missing query and or a missing target");
 
+    loadQueryChars(query.container);
+
     var matchCount = 0;
+    var querySize = query.size();
+
+    // Only visit syllables which are still unmatched, by walking the set bits of the inverted flags
+    for (var wordIndex = 0; wordIndex < requiredLongs(querySize) && numberOfUnmatchedQuerySyllables != 0; ++wordIndex) {
+      var unmatchedBits = ~queryMatchedFlags[wordIndex];
+
+      while (unmatchedBits != 0) {
+        var querySyllableIndex = wordIndex * Long.SIZE + Long.numberOfTrailingZeros(unmatchedBits);
+        unmatchedBits &= unmatchedBits - 1;
+
+        if (querySyllableIndex >= querySize)
+          break;
+
+        var querySyllable = query.getSyllable(querySyllableIndex);
 
-    for (var querySyllableIndex = 0; querySyllableIndex < query.size(); ++querySyllableIndex) {
-      if (isMarkedAsMatched(queryMatchedFlags, querySyllableIndex))
-        continue;
+        var querySignature = query.getSignature(querySyllableIndex);
+        var didQuerySyllableMatch = matchQueryAgainstTargets(querySyllable, querySignature, target, targetMatchedFlags, 0);
 
-      var querySyllable = query.getSyllable(querySyllableIndex);
+        if (!didQuerySyllableMatch)
+          didQuerySyllableMatch = matchQueryAgainstTargets(querySyllable, querySignature, targetRemainders, targetRemaindersMatchedFlags, 0);
 
-      var didQuerySyllableMatch = matchQueryAgainstTargets(querySyllable, target, targetMatchedFlags);
+        // Exact occurrences take precedence over approximate ones anywhere within the target
+        if (!didQuerySyllableMatch && maximumEditDistance != 0) {
+          var allowedEditDistance = getAllowedEditDistance(querySyllable);
 
-      if (!didQuerySyllableMatch)
-        didQuerySyllableMatch = matchQueryAgainstTargets(querySyllable, targetRemainders, targetRemaindersMatchedFlags);
+          if (allowedEditDistance != 0) {
+            didQuerySyllableMatch = matchQueryAgainstTargets(querySyllable, querySignature, target, targetMatchedFlags, allowedEditDistance);
 
-      if (didQuerySyllableMatch) {
-        // Do not remove negated query substrings that matched, as to keep the result a mismatch
-        if (Syllables.isNegated(querySyllable))
+            if (!didQuerySyllableMatch)
+              didQuerySyllableMatch = matchQueryAgainstTargets(querySyllable, querySignature, targetRemainders, targetRemaindersMatchedFlags, allowedEditDistance);
+
+            if (didQuerySyllableMatch)
+              ++numberOfFuzzyMatches;
+          }
+        }
+
+        if (didQuerySyllableMatch) {
+          // Do not remove negated query substrings that matched, as to keep the result a mismatch
+          if (Syllables.isNegated(querySyllable))
+            continue;
+
+          markQuerySyllableAsMatched(querySyllableIndex);
+          ++matchCount;
           continue;
+        }
 
-        markAsMatched(queryMatchedFlags, querySyllableIndex);
-        ++matchCount;
-        continue;
+        // Remove negated query substrings which didn't find a match, as to allow the result to become a match
+        if (Syllables.isNegated(querySyllable)) {
+          markQuerySyllableAsMatched(querySyllableIndex);
+          ++matchCount;
+        }
       }
+    }
+
+    return matchCount;
+  }
 
-      // Remove negated query substrings which didn't find a match, as to allow the result to become a match
-      if (Syllables.isNegated(querySyllable)) {
-        markAsMatched(queryMatchedFlags, querySyllableIndex);
-        ++matchCount;
+  /**
+   * Matches the query against each of the targets in turn, while reusing all scratch-state; a
+   * target is considered a match if no query-syllables remained unmatched. Afterwards, this
+   * matcher holds the query as well as the last processed target.
+   * @param limit Number of matches after which to stop; non-positive for no limit
+   * @return Indices of all matching targets, in iteration-order
+   */
+  public BitSet matchTargets(Syllables query, Iterable<? extends Syllables> targets, int limit) {
+    var result = new BitSet();
+
+    setQuery(query);
+
+    var targetIndex = 0;
+    var numberOfMatches = 0;
+
+    for (var target : targets) {
+      if (doesQueryFullyMatch(target)) {
+        result.set(targetIndex);
+
+        if (++numberOfMatches == limit)
+          break;
       }
+
+      ++targetIndex;
     }
 
-    return matchCount;
+    return result;
+  }
+
+  public BitSet matchTargets(Syllables query, Syllables[] targets, int limit) {
+    return matchTargets(query, Arrays.asList(targets), limit);
+  }
+
+  /**
+   * Matches the current query against the provided target from scratch
+   * @return Whether no query-syllables remained unmatched
+   */
+  boolean doesQueryFullyMatch(Syllables target) {
+    resetQueryMatches();
+    setTarget(target);
+    match();
+
+    return !hasUnmatchedQuerySyllables();
+  }
+
+  long getNumberOfTargets() {
+    return numberOfTargets;
+  }
+
+  long getNumberOfIndexOfInvocations() {
+    return numberOfIndexOfInvocations;
+  }
+
+  long getNumberOfRemainders() {
+    return numberOfRemainders;
+  }
+
+  /**
+   * @return Number of query-syllables which only matched within the maximum edit-distance on the current target
+   */
+  int getNumberOfFuzzyMatches() {
+    return numberOfFuzzyMatches;
+  }
+
+  /**
+   * Scores how well the query matched the current target, where a higher score is better; compared
+   * in descending priority: fewer query-syllables which only matched approximately, query-syllables
+   * which matched a whole target-syllable, query-syllables which matched at the start of a target-syllable,
+   * fewer unmatched target-syllables and remainders, and query-syllables which matched the target-syllable
+   * right after the previously matched one.
+   */
+  long computeMatchScore() {
+    var numberOfUnmatchedTargetSyllables = 0;
+
+    if (target != null)
+      numberOfUnmatchedTargetSyllables = this.numberOfUnmatchedTargetSyllables + numberOfUnmatchedTargetRemainders;
+
+    return (
+      ((long) (0x7 - Math.min(numberOfFuzzyMatches, 0x7)) << 60) |
+      ((long) Math.min(numberOfExactMatches, 0xFFF) << 48) |
+      ((long) Math.min(numberOfPrefixMatches, 0xFFFF) << 32) |
+      ((long) (0xFFFF - Math.min(numberOfUnmatchedTargetSyllables, 0xFFFF)) << 16) |
+      Math.min(numberOfContiguousMatches, 0xFFFF)
+    );
+  }
+
+  /**
+   * @return Number of whole target-syllables which no query-syllable has matched within, disregarding remainders
+   */
+  int countUntouchedTargetSyllables() {
+    if (target == null)
+      return 0;
+
+    return numberOfUnmatchedTargetSyllables;
   }
 
   private void forEachUnmatched(Syllables syllables, long[] matchedFlags, UnmatchedSyllableConsumer consumer) {
-    for (var syllableIndex = 0; syllableIndex < syllables.size(); ++syllableIndex) {
-      var syllable = syllables.getSyllable(syllableIndex);
+    var size = syllables.size();
+
+    for (var wordIndex = 0; wordIndex < requiredLongs(size); ++wordIndex) {
+      var unmatchedBits = ~matchedFlags[wordIndex];
 
-      if (isMarkedAsMatched(matchedFlags, syllableIndex))
-        continue;
+      while (unmatchedBits != 0) {
+        var syllableIndex = wordIndex * Long.SIZE + Long.numberOfTrailingZeros(unmatchedBits);
+        unmatchedBits &= unmatchedBits - 1;
 
-      consumer.accept(syllables, syllable);
+        if (syllableIndex >= size)
+          return;
+
+        consumer.accept(syllables, syllables.getSyllable(syllableIndex));
+      }
     }
   }
 
-  private boolean matchQueryAgainstTargets(int querySyllable, Syllables target, long[] targetMatchedFlags) {
-    // Don't bother iterating if there's nothing left; this check should be so cheap that it resembles a worthy fast-path
-    if (!hasUnmatchedBits(targetMatchedFlags, target.size()))
-      return false;
-
-    for (var targetSyllableIndex = 0; targetSyllableIndex < target.size(); ++targetSyllableIndex) {
-      if (isMarkedAsMatched(targetMatchedFlags, targetSyllableIndex))
-        continue;
+  private int getAllowedEditDistance(int querySyllable) {
+    assert query != null;
 
-      var targetSyllable = target.getSyllable(targetSyllableIndex);
-      var indexResult = relativeIndexOf(querySyllable, targetSyllable);
+    if (Syllables.isNegated(querySyllable))
+      return 0;
 
-      // NOTE: Beginning index relative to the target's start
-      var beginInTarget = (int) (indexResult >> 16);
+    return EditDistanceScanner.getAllowedDistance(maximumEditDistance, query.getLengthOf(querySyllable));
+  }
 
-      // Not a match
-      if (beginInTarget == Integer.MAX_VALUE)
-        continue;
+  private boolean matchQueryAgainstTargets(int querySyllable, long querySignature, Syllables target, long[] targetMatchedFlags, int allowedEditDistance) {
+    var isRemainders = target == targetRemainders;
 
-      markAsMatched(targetMatchedFlags, targetSyllableIndex);
+    // Don't bother iterating if there's nothing left
+    if ((isRemainders ? numberOfUnmatchedTargetRemainders : numberOfUnmatchedTargetSyllables) == 0)
+      return false;
 
-        /*
-          Cases:
-          vvv-----
-          ABCDEFGH
+    assert query != null;
 
-          ---vvv--
-          ABCDEFGH
+    // Decode once up-front, as wide syllables require an additional lookup
+    var querySyllableStart = query.getStartIndexOf(querySyllable);
+    var querySyllableLength = query.getLengthOf(querySyllable);
+    var targetSize = target.size();
 
-          -----vvv
-          ABCDEFGH
-         */
+    for (var wordIndex = 0; wordIndex < requiredLongs(targetSize); ++wordIndex) {
+      var unmatchedBits = ~targetMatchedFlags[wordIndex];
 
-      var targetSyllableStart = Syllables.getStartIndex(targetSyllable);
-      var targetSyllableEnd = Syllables.getEndIndex(targetSyllable);
-      var targetSyllableLength = targetSyllableEnd - targetSyllableStart + 1;
+      while (unmatchedBits != 0) {
+        var targetSyllableIndex = wordIndex * Long.SIZE + Long.numberOfTrailingZeros(unmatchedBits);
+        unmatchedBits &= unmatchedBits - 1;
 
-      // NOTE: The match-length may be greater than the query-syllable's length, due to color-sequences
-      var matchLength = (int) (indexResult & 0xFFFF);
+        if (targetSyllableIndex >= targetSize)
+          return false;
 
-      // Remainder after match
-      if (beginInTarget + matchLength < targetSyllableLength)
-        addTargetRemainder(targetSyllableStart + beginInTarget + matchLength, targetSyllableEnd);
+        var targetSignature = target.getSignature(targetSyllableIndex);
 
-      // Remainder previous to match
-      if (beginInTarget != 0)
-        addTargetRemainder(targetSyllableStart, targetSyllableStart + beginInTarget - 1);
+        // The target lacks more of the query's characters than there are edits, which saves on comparing them;
+        // manually added query-syllables have no signature, which would otherwise require every character
+        if (querySignature != Syllables.UNKNOWN_SIGNATURE && Long.bitCount(querySignature & ~targetSignature) > allowedEditDistance)
+          continue;
 
-      return true;
+        if (matchQueryAgainstTarget(querySyllableStart, querySyllableLength, target, targetMatchedFlags, targetSyllableIndex, targetSignature, allowedEditDistance))
+          return true;
+      }
     }
 
     return false;
   }
 
-  private void addTargetRemainder(int start, int end) {
-    assert target != null;
+  private boolean matchQueryAgainstTarget(
+    int querySyllableStart,
+    int querySyllableLength,
+    Syllables target,
+    long[] targetMatchedFlags,
+    int targetSyllableIndex,
+    long targetSignature,
+    int allowedEditDistance
+  ) {
+    var targetSyllable = target.getSyllable(targetSyllableIndex);
+    var targetSyllableStart = target.getStartIndexOf(targetSyllable);
+    var targetSyllableEnd = target.getEndIndexOf(targetSyllable);
+
+    var indexResult = relativeIndexOf(querySyllableStart, querySyllableLength, targetSyllableStart, targetSyllableEnd, allowedEditDistance);
+
+    // NOTE: Beginning index relative to the target's start
+    var beginInTarget = (int) (indexResult >> 32);
+
+    // Not a match
+    if (beginInTarget == Integer.MAX_VALUE)
+      return false;
+
+    markAsMatched(targetMatchedFlags, targetSyllableIndex);
+
+    if (target == targetRemainders)
+      --numberOfUnmatchedTargetRemainders;
+    else
+      --numberOfUnmatchedTargetSyllables;
+
+    updateMatchStatistics(target, targetSyllableIndex, beginInTarget, (int) indexResult, targetSyllableEnd - targetSyllableStart + 1);
+
+    /*
+      Cases:
+      vvv-----
+      ABCDEFGH
+
+      ---vvv--
+      ABCDEFGH
+
+      -----vvv
+      ABCDEFGH
+     */
+
+    var targetSyllableLength = targetSyllableEnd - targetSyllableStart + 1;
+
+    // NOTE: The match-length may differ from the query-syllable's length, due to color-sequences or edits
+    var matchLength = (int) indexResult;
+
+    // Remainders only contain a subset of the syllable's characters, thus its signature remains valid for them
+
+    // Remainder after match
+    if (beginInTarget + matchLength < targetSyllableLength)
+      addTargetRemainder(targetSyllableStart + beginInTarget + matchLength, targetSyllableEnd, targetSignature);
+
+    // Remainder previous to match
+    if (beginInTarget != 0)
+      addTargetRemainder(targetSyllableStart, targetSyllableStart + beginInTarget - 1, targetSignature);
+
+    return true;
+  }
+
+  private void updateMatchStatistics(Syllables target, int targetSyllableIndex, int beginInTarget, int matchLength, int targetSyllableLength) {
+    if (beginInTarget == 0) {
+      ++numberOfPrefixMatches;
 
+      if (matchLength == targetSyllableLength)
+        ++numberOfExactMatches;
+    }
+
+    // Remainders are not in the order of the target, thus only whole syllables can be contiguous
+    if (target != this.target)
+      return;
+
+    if (targetSyllableIndex == lastMatchedTargetSyllableIndex + 1)
+      ++numberOfContiguousMatches;
+
+    lastMatchedTargetSyllableIndex = targetSyllableIndex;
+  }
+
+  private void addTargetRemainder(int start, int end, long signature) {
     // Mini-Message's *ingenious* parser colors whitespace on - for example - rainbows, thus we
     // need to check for whether the syllable is just made up of a color-sequence, as to not
     // have matches fail because of dangling colors.
-    if (consumeColorSequencesAndGetLength(target.container, start, end) == (end - start + 1))
+    if (targetView.isColorOnly(start, end))
       return;
 
-    targetRemainders.add(start, end, false);
+    targetRemainders.add(start, end, false, signature);
+    ++numberOfUnmatchedTargetRemainders;
+    ++numberOfRemainders;
 
     int newRequiredLongs = requiredLongs(targetRemainders.capacity());
 
@@ -237,121 +539,81 @@ public class SyllablesMatcher {
     }
   }
 
-  private int consumeColorSequencesAndGetLength(String input, int position, int lastPosition) {
-    // § is a reserved character, thus just greedily consume as many such subsequent
-    // sequences as possible, no matter whether malformed or not; it's just not worth
-    // going through all the case-decisions.
-
-    var initialPosition = position;
-
-    while (lastPosition - position + 1 >= 2) {
-      if (input.charAt(position) != '§')
-        break;
-
-      char c = input.charAt(position + 1);
-
-      if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F') || (c >= 'k' && c <= 'o') || c == 'r' || c == 'x'))
-        break;
-
-      position += 2;
-    }
-
-    return position - initialPosition;
-  }
-
   /**
    * @return <32b begin_in_target><32b number_of_target_chars>;
    *         if begin_in_target == Integer.MAX_VALUE then it's not contained;
    *         number_of_target_chars may be larger than the target syllable itself,
-   *         due to skipped-over color sequences
+   *         due to skipped-over color sequences. Sequences are always skipped as parsed
+   *         from the container's start, thus a match spans all sequences in front of its
+   *         first character and never matches a sequence's code as content.
    */
-  private long relativeIndexOf(int querySyllable, int targetSyllable) {
-    assert query != null && target != null;
+  private long relativeIndexOf(int querySyllableStart, int querySyllableLength, int targetSyllableStart, int targetSyllableEnd, int allowedEditDistance) {
+    assert query != null;
 
-    var querySyllableLength = Syllables.getLength(querySyllable);
-    var targetSyllableLength = Syllables.getLength(targetSyllable);
+    ++numberOfIndexOfInvocations;
 
-    if (targetSyllableLength < querySyllableLength)
-      return ((long) Integer.MAX_VALUE) << 16;
+    // Color-sequences are not contained within the view, thus they're skipped implicitly
+    var viewStart = targetView.toViewIndex(targetSyllableStart);
+    var viewEnd = targetView.toViewIndex(targetSyllableEnd + 1);
 
-    var querySyllableStart = Syllables.getStartIndex(querySyllable);
-    var targetSyllableStart = Syllables.getStartIndex(targetSyllable);
-    var targetSyllableEnd = Syllables.getEndIndex(targetSyllable);
+    if (viewEnd - viewStart < querySyllableLength - allowedEditDistance)
+      return ((long) Integer.MAX_VALUE) << 32;
 
-    /*
-      0: A B C
-      1:   A B C
-      2:     A B C
-         A B C D E
-     */
-    var highestOffset = targetSyllableLength - querySyllableLength;
+    int viewOffset;
+    int viewLength;
 
-    // TODO: Can this algorithm still be improved?
+    if (allowedEditDistance == 0) {
+      viewOffset = scanKernel.indexOf(targetView.chars, viewStart, viewEnd, queryChars, querySyllableStart, querySyllableLength);
+      viewLength = querySyllableLength;
+    }
 
-    for (int targetOffset = 0; targetOffset <= highestOffset; ++targetOffset) {
-      TriState didMatch = TriState.NULL;
+    else {
+      var occurrence = editDistanceScanner.indexOf(
+        targetView.chars, viewStart, viewEnd,
+        queryChars, querySyllableStart, querySyllableLength, allowedEditDistance
+      );
 
-      // As color-sequences are skipped on the outer-loop's counter, keep an internal
-      // backup to respond the very front of the match, including said sequences.
-      var initialTargetOffset = targetOffset;
+      viewOffset = occurrence < 0 ? -1 : (int) (occurrence >> 32);
+      viewLength = (int) occurrence;
+    }
 
-      for (int queryOffset = 0; queryOffset < querySyllableLength; ++queryOffset) {
-        var targetIndex = targetSyllableStart + queryOffset + targetOffset;
-        var queryIndex = querySyllableStart + queryOffset;
+    if (viewOffset < 0)
+      return ((long) Integer.MAX_VALUE) << 32;
 
-        var colorSequenceLength = consumeColorSequencesAndGetLength(target.container, targetIndex, targetSyllableEnd);
+    // The match also spans the color-sequences in front of its first character, up until the
+    // previous character in the view, which is how skipping sequences while walking behaves.
+    var beginInContainer = viewOffset == viewStart
+      ? targetSyllableStart
+      : targetView.toContainerIndex(viewOffset - 1) + 1;
 
-        targetOffset += colorSequenceLength;
-        targetIndex += colorSequenceLength;
+    var endInContainer = targetView.toContainerIndex(viewOffset + viewLength - 1);
 
-        if (targetIndex > targetSyllableEnd) {
-          didMatch = TriState.FALSE;
-          break;
-        }
+    return ((long) (beginInContainer - targetSyllableStart)) << 32 | (endInContainer - beginInContainer + 1);
+  }
 
-        var targetChar = target.container.charAt(targetIndex);
-        var containedChar = query.container.charAt(queryIndex);
+  private void loadQueryChars(@Nullable String container) {
+    // Strings are immutable, thus an identical instance yields the very same characters
+    if (container == null || container == loadedQueryContainer)
+      return;
 
-        if (targetChar != containedChar) {
-          didMatch = TriState.FALSE;
-          break;
-        }
+    loadedQueryContainer = container;
 
-        didMatch = TriState.TRUE;
-      }
+    if (queryChars.length < container.length())
+      queryChars = new char[Math.max(container.length(), queryChars.length * 2)];
 
-      if (didMatch == TriState.TRUE) {
-        var numberOfTargetChars = targetOffset - initialTargetOffset + querySyllableLength;
-        return ((long) initialTargetOffset) << 16 | numberOfTargetChars;
-      }
-    }
+    container.getChars(0, container.length(), queryChars, 0);
+  }
 
-    return ((long) Integer.MAX_VALUE) << 16;
+  private void markQuerySyllableAsMatched(int index) {
+    markAsMatched(queryMatchedFlags, index);
+    --numberOfUnmatchedQuerySyllables;
   }
 
   private static void markAsMatched(long[] flags, int index) {
     flags[index / Long.SIZE] |= 1L << (index % Long.SIZE);
   }
 
-  private static boolean isMarkedAsMatched(long[] flags, int index) {
-    return (flags[index / Long.SIZE] & (1L << (index % Long.SIZE))) != 0;
-  }
-
-  private static boolean hasUnmatchedBits(long[] flags, int size) {
-    var numberOfAllFlagged = size / Long.SIZE;
-    var numberOfRemainingFlaggedBits = size % Long.SIZE;
-
-    int i;
-
-    for (i = 0; i < numberOfAllFlagged; ++i) {
-      if (flags[i] != Long.MAX_VALUE)
-        return true;
-    }
-
-    return flags[i] != (1L << numberOfRemainingFlaggedBits) - 1;
-  }
-
-  private static int requiredLongs(int numberOfItems) {
+  static int requiredLongs(int numberOfItems) {
     if (numberOfItems == 0)
       return 1;
 
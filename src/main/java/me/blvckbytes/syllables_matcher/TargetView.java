@@ -0,0 +1,161 @@
+package me.blvckbytes.syllables_matcher;
+
+import org.jetbrains.annotations.Nullable;
+
+/*
+  Color-free view of a container: all color-sequences are removed, as to be able to search
+  for substrings on contiguous characters, while mapping back to positions within the container
+  is still possible. Sequences are consumed greedily from left to right, just as when skipping
+  them while walking the container itself. Containers without any § are viewed as-is.
+
+  Views of frozen, colored targets are built once, see Syllables#getTargetView, and are never loaded
+  again thereafter, such that they may be shared by all matchers; all other containers are viewed
+  within the scratch-space of a single matcher, as to not retain copies of them.
+ */
+class TargetView {
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  char[] chars;
+  int length;
+
+  // Whether view-indices equal container-indices, in which case the maps are not maintained
+  boolean isIdentity;
+
+  private @Nullable String loadedContainer;
+
+  // View-index to container-index
+  private int[] containerIndices;
+
+  // Container-index to the number of view-characters preceding it; one past the container's end
+  private int[] viewIndices;
+
+  TargetView() {
+    this(INITIAL_CAPACITY);
+  }
+
+  TargetView(int capacity) {
+    this.chars = new char[capacity];
+    this.containerIndices = new int[0];
+    this.viewIndices = new int[0];
+    this.isIdentity = true;
+  }
+
+  void load(@Nullable String container) {
+    // Strings are immutable, thus an identical instance yields the very same view
+    if (container != null && container == loadedContainer)
+      return;
+
+    loadedContainer = container;
+
+    if (container == null) {
+      this.length = 0;
+      this.isIdentity = true;
+      return;
+    }
+
+    var containerLength = container.length();
+
+    if (chars.length < containerLength)
+      chars = new char[Math.max(containerLength, chars.length * 2)];
+
+    if (container.indexOf('§') < 0) {
+      container.getChars(0, containerLength, chars, 0);
+      this.length = containerLength;
+      this.isIdentity = true;
+      return;
+    }
+
+    loadColored(container);
+  }
+
+  /**
+   * Loads a container which is not backed by a string, e.g. a region of off-heap memory; as such
+   * sequences may change in place, they are never considered to be loaded already.
+   */
+  void loadSequence(CharSequence container) {
+    loadedContainer = null;
+
+    var containerLength = container.length();
+
+    if (chars.length < containerLength)
+      chars = new char[Math.max(containerLength, chars.length * 2)];
+
+    var hasColorSequences = false;
+
+    for (var containerIndex = 0; containerIndex < containerLength; ++containerIndex) {
+      var currentChar = container.charAt(containerIndex);
+
+      if (currentChar == '§')
+        hasColorSequences = true;
+
+      chars[containerIndex] = currentChar;
+    }
+
+    if (!hasColorSequences) {
+      this.length = containerLength;
+      this.isIdentity = true;
+      return;
+    }
+
+    loadColored(container);
+  }
+
+  private void loadColored(CharSequence container) {
+    var containerLength = container.length();
+
+    if (containerIndices.length < containerLength)
+      containerIndices = new int[chars.length];
+
+    if (viewIndices.length < containerLength + 1)
+      viewIndices = new int[chars.length + 1];
+
+    var viewLength = 0;
+    var containerIndex = 0;
+
+    while (containerIndex < containerLength) {
+      var currentChar = container.charAt(containerIndex);
+
+      viewIndices[containerIndex] = viewLength;
+
+      if (currentChar == '§' && containerIndex + 1 < containerLength && isColorSequenceCode(container.charAt(containerIndex + 1))) {
+        viewIndices[containerIndex + 1] = viewLength;
+        containerIndex += 2;
+        continue;
+      }
+
+      chars[viewLength] = currentChar;
+      containerIndices[viewLength] = containerIndex;
+
+      ++viewLength;
+      ++containerIndex;
+    }
+
+    viewIndices[containerLength] = viewLength;
+
+    this.length = viewLength;
+    this.isIdentity = false;
+  }
+
+  /**
+   * @return Index of the first view-character at or after the given container-index
+   */
+  int toViewIndex(int containerIndex) {
+    return isIdentity ? containerIndex : viewIndices[containerIndex];
+  }
+
+  int toContainerIndex(int viewIndex) {
+    return isIdentity ? viewIndex : containerIndices[viewIndex];
+  }
+
+  /**
+   * @return Whether the inclusive range of the container is made up of color-sequences only
+   */
+  boolean isColorOnly(int containerStart, int containerEnd) {
+    return !isIdentity && viewIndices[containerEnd + 1] == viewIndices[containerStart];
+  }
+
+  static boolean isColorSequenceCode(char c) {
+    return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F') || (c >= 'k' && c <= 'o') || c == 'r' || c == 'x';
+  }
+}
@@ -3,6 +3,10 @@ package me.blvckbytes.syllables_matcher;
 @FunctionalInterface
 public interface UnmatchedSyllableConsumer {
 
+  /**
+   * @param syllable To be decoded by the holder, e.g. {@link Syllables#getStartIndexOf(int)}, as it may
+   *                 be a handle into its wide encoding, which the static decoders do not support
+   */
   void accept(Syllables holder, int syllable);
 
 }
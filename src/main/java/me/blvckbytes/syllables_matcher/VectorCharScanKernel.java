@@ -0,0 +1,53 @@
+package me.blvckbytes.syllables_matcher;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+/*
+  Compares as many offsets at once as there are lanes: the first and the last needle-character
+  are broadcast and compared against two loads which are the needle's length apart, such that
+  the set bits of both masks AND-ed together are the only offsets left to verify. Offsets too
+  close to the region's end to load a whole vector are handled by the scalar kernel.
+
+  Only ever loaded by CharScanKernel#tryLoadVectorKernel, as to not link against the Vector API otherwise.
+ */
+class VectorCharScanKernel implements CharScanKernel {
+
+  private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+
+  @Override
+  public int indexOf(char[] haystack, int fromIndex, int toIndex, char[] needle, int needleStart, int needleLength) {
+    var firstNeedleChar = needle[needleStart];
+    var lastNeedleChar = needle[needleStart + needleLength - 1];
+
+    var laneCount = SPECIES.length();
+    var lastCharDistance = needleLength - 1;
+
+    // The load of the last characters must not read past the region's end
+    var highestVectorOffset = toIndex - lastCharDistance - laneCount;
+
+    var offset = fromIndex;
+
+    for (; offset <= highestVectorOffset; offset += laneCount) {
+      var firstCharMatches = ShortVector.fromCharArray(SPECIES, haystack, offset).eq((short) firstNeedleChar);
+      var lastCharMatches = ShortVector.fromCharArray(SPECIES, haystack, offset + lastCharDistance).eq((short) lastNeedleChar);
+
+      var candidates = firstCharMatches.and(lastCharMatches).toLong();
+
+      while (candidates != 0) {
+        var candidate = offset + Long.numberOfTrailingZeros(candidates);
+        candidates &= candidates - 1;
+
+        if (needleLength <= 2 || Arrays.equals(
+          haystack, candidate + 1, candidate + lastCharDistance,
+          needle, needleStart + 1, needleStart + lastCharDistance
+        ))
+          return candidate;
+      }
+    }
+
+    return ScalarCharScanKernel.INSTANCE.indexOf(haystack, offset, toIndex, needle, needleStart, needleLength);
+  }
+}
@@ -1,14 +1,22 @@
 package me.blvckbytes.syllables_matcher;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
-import java.util.Arrays;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Objects;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class EnumMatcherTests {
 
@@ -149,6 +157,412 @@ public class EnumMatcherTests {
     assertEquals(MyEnum.PRICE, result.constant);
   }
 
+  enum MaterialEnum implements MatchableEnum {
+    DIAMOND_SWORD,
+    DIAMOND_PICKAXE,
+    DIAMOND_AXE,
+    GOLDEN_AXE,
+    GOLDEN_APPLE,
+    ENCHANTED_GOLDEN_APPLE,
+    OAK_SIGN,
+    OAK_HANGING_SIGN,
+    DARK_OAK_SIGN,
+    RED_WOOL,
+    RED_SANDSTONE,
+    SANDSTONE,
+    STONE,
+    COBBLESTONE,
+    MOSSY_COBBLESTONE,
+    AXOLOTL_BUCKET,
+    A,
+    AB,
+    ;
+  }
+
+  private static final String[] MATERIAL_INPUTS = {
+    "", "-", "a", "ax", "axe", "dia", "dia-ax", "dia-sw", "dia-pic-ax", "gol-app", "app-gol", "ench-app",
+    "oak", "oak-!hang", "!oak-sign", "sign-oak-dark", "st", "sto", "stone", "sand-red", "!red", "!a",
+    "cob-mos", "xyz", "o", "ooo", "s-s", "ab", "b-a", "a-b", "§", "é", "dia-*", "sign-?", "oak-sign-?", "?-?",
+    "stone-?", "!oak-?", "*",
+  };
+
+  @Test
+  public void shouldYieldIdenticalResultsWhenIndexed() {
+    var unindexedMatcher = new EnumMatcher<>(MaterialEnum.values());
+    var indexedMatcher = new EnumMatcher<>(MaterialEnum.values(), true);
+
+    for (var input : MATERIAL_INPUTS) {
+      assertEquals(unindexedMatcher.createCompletions(input), indexedMatcher.createCompletions(input), "Input: " + input);
+      assertEquals(unindexedMatcher.matchFirst(input), indexedMatcher.matchFirst(input), "Input: " + input);
+    }
+  }
+
+  @Test
+  public void shouldYieldConsistentResultsWhenSharedAcrossThreads() throws Exception {
+    var matcher = new EnumMatcher<>(MaterialEnum.values(), true);
+    var expectedCompletions = new HashMap<String, List<String>>();
+
+    for (var input : MATERIAL_INPUTS)
+      expectedCompletions.put(input, matcher.createCompletions(input));
+
+    var executor = Executors.newFixedThreadPool(8);
+
+    try {
+      var futures = new ArrayList<Future<?>>();
+
+      for (var threadIndex = 0; threadIndex < 8; ++threadIndex) {
+        futures.add(executor.submit(() -> {
+          var output = new ArrayList<String>();
+
+          for (var iteration = 0; iteration < 250; ++iteration) {
+            for (var input : MATERIAL_INPUTS) {
+              output.clear();
+              matcher.addCompletions(input, null, null, null, output);
+              assertEquals(expectedCompletions.get(input), output, "Input: " + input);
+            }
+          }
+        }));
+      }
+
+      for (var future : futures)
+        future.get();
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void shouldLoadPrebuiltMatchersAndRebuildStaleOnes(@TempDir Path directory) throws Exception {
+    var path = directory.resolve("materials.bin");
+    var values = Arrays.asList(MaterialEnum.values());
+    var builtMatcher = new EnumMatcher<>(values, true);
+
+    var initialMatcher = EnumMatcher.loadOrBuild(values, true, path);
+    assertTrue(Files.isRegularFile(path));
+
+    // The order of constants does not matter, as they're sorted anyway
+    var shuffledValues = new ArrayList<>(values);
+    Collections.shuffle(shuffledValues, new Random(20));
+
+    var loadedMatcher = EnumMatcher.loadOrBuild(shuffledValues, true, path);
+
+    for (var input : MATERIAL_INPUTS) {
+      assertEquals(builtMatcher.createCompletions(input), initialMatcher.createCompletions(input), "Input: " + input);
+      assertEquals(builtMatcher.createCompletions(input), loadedMatcher.createCompletions(input), "Input: " + input);
+      assertEquals(builtMatcher.matchFirst(input), loadedMatcher.matchFirst(input), "Input: " + input);
+    }
+
+    assertEquals("Diamond-Sword", loadedMatcher.getNormalizedName(MaterialEnum.DIAMOND_SWORD));
+
+    // Files derived by another normalization, tokenization or indexing are stale, even for the same names
+    var savedBytes = Files.readAllBytes(path);
+    var foreignBytes = savedBytes.clone();
+    foreignBytes[24] ^= 1;
+    Files.write(path, foreignBytes);
+
+    EnumMatcher.loadOrBuild(values, true, path);
+    assertArrayEquals(savedBytes, Files.readAllBytes(path));
+
+    // Another set of constants makes the file stale, thus it's rebuilt and overwritten
+    var subsetOfValues = values.subList(0, values.size() / 2);
+    var rebuiltMatcher = EnumMatcher.loadOrBuild(subsetOfValues, false, path);
+
+    for (var input : MATERIAL_INPUTS)
+      assertEquals(new EnumMatcher<>(subsetOfValues).createCompletions(input), rebuiltMatcher.createCompletions(input), "Input: " + input);
+
+    loadedMatcher.getNormalizedConstant(MaterialEnum.DIAMOND_SWORD).setName("Diamantschwert");
+    assertThrows(IllegalStateException.class, () -> loadedMatcher.save(path));
+
+    // Failing to save does not discard the matcher, which has been built nonetheless
+    var saveFailures = new ArrayList<IOException>();
+    var unsavedMatcher = EnumMatcher.loadOrBuild(values, true, directory.resolve("missing").resolve("materials.bin"), saveFailures::add);
+
+    assertEquals(1, saveFailures.size());
+    assertEquals(builtMatcher.createCompletions("dia-sw"), unsavedMatcher.createCompletions("dia-sw"));
+  }
+
+  @Test
+  public void shouldReindexOnRename() {
+    var indexedMatcher = new EnumMatcher<>(MaterialEnum.values(), true);
+
+    assertEquals(List.of(), indexedMatcher.createCompletions("apfel"));
+
+    indexedMatcher.getNormalizedConstant(MaterialEnum.GOLDEN_APPLE).setName("Goldener_Apfel");
+    indexedMatcher.getNormalizedConstant(MaterialEnum.ENCHANTED_GOLDEN_APPLE).setName("§6Verzauberter_Goldener_Apfel");
+
+    assertEquals(List.of("Goldener-Apfel", "§6verzauberter-Goldener-Apfel"), indexedMatcher.createCompletions("apfel"));
+    assertEquals(List.of("§6verzauberter-Goldener-Apfel"), indexedMatcher.createCompletions("verz"));
+  }
+
+  @Test
+  public void shouldResortOnBatchedRename() {
+    var matcher = new EnumMatcher<>(MaterialEnum.values(), true);
+
+    assertEquals(List.of("Stone", "Sandstone", "Cobblestone", "Red-Sandstone", "Mossy-Cobblestone"), matcher.createCompletions("stone"));
+
+    matcher.setNames(Map.of(MaterialEnum.STONE, "Polished_Stone_Block", MaterialEnum.SANDSTONE, "Sand_Stone"));
+
+    assertEquals(
+      List.of("Sand-Stone", "Cobblestone", "Red-Sandstone", "Mossy-Cobblestone", "Polished-Stone-Block"),
+      matcher.createCompletions("stone")
+    );
+
+    assertEquals("Sand-Stone", matcher.getNormalizedName(MaterialEnum.SANDSTONE));
+  }
+
+  @Test
+  public void shouldNeverObserveTornRenamesWhileMatching() throws Exception {
+    var matcher = new EnumMatcher<>(MaterialEnum.values(), true);
+    var translatedNames = Map.of(MaterialEnum.GOLDEN_APPLE, "Goldener_Apfel", MaterialEnum.ENCHANTED_GOLDEN_APPLE, "Verzauberter_Goldener_Apfel");
+    var initialNames = Map.of(MaterialEnum.GOLDEN_APPLE, "Golden_Apple", MaterialEnum.ENCHANTED_GOLDEN_APPLE, "Enchanted_Golden_Apple");
+
+    var initialCompletions = matcher.createCompletions("gol");
+    matcher.setNames(translatedNames);
+    var translatedCompletions = matcher.createCompletions("gol");
+
+    assertEquals(List.of("Golden-Axe", "Goldener-Apfel", "Verzauberter-Goldener-Apfel"), translatedCompletions);
+
+    var executor = Executors.newFixedThreadPool(4);
+
+    try {
+      var futures = new ArrayList<Future<?>>();
+
+      for (var threadIndex = 0; threadIndex < 4; ++threadIndex) {
+        futures.add(executor.submit(() -> {
+          for (var iteration = 0; iteration < 2000; ++iteration) {
+            var completions = matcher.createCompletions("gol");
+            assertTrue(completions.equals(initialCompletions) || completions.equals(translatedCompletions), "Torn: " + completions);
+          }
+        }));
+      }
+
+      for (var iteration = 0; iteration < 500; ++iteration)
+        matcher.setNames(iteration % 2 == 0 ? initialNames : translatedNames);
+
+      for (var future : futures)
+        future.get();
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void shouldSupersedeInFlightAsyncCompletionsOfSameCaller() throws Exception {
+    var matcher = new EnumMatcher<>(MaterialEnum.values(), true);
+    matcher.enableCompletionCache(16);
+
+    // Queue tasks instead of running them, as to have requests be in flight deterministically
+    var queuedTasks = new ArrayList<Runnable>();
+
+    var firstRequest = matcher.createCompletionsAsync("first-player", "dia", queuedTasks::add);
+    var secondRequest = matcher.createCompletionsAsync("first-player", "dia-ax", queuedTasks::add);
+    var otherCallerRequest = matcher.createCompletionsAsync("second-player", "oak", queuedTasks::add);
+
+    assertTrue(firstRequest.isCancelled());
+    assertFalse(secondRequest.isDone());
+
+    for (var queuedTask : queuedTasks)
+      queuedTask.run();
+
+    assertEquals(matcher.createCompletions("dia-ax"), secondRequest.get());
+    assertEquals(matcher.createCompletions("oak"), otherCallerRequest.get());
+
+    var executor = Executors.newFixedThreadPool(2);
+
+    try {
+      assertEquals(matcher.createCompletions("gol"), matcher.createCompletionsAsync("first-player", "gol", executor).get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  enum TypoEnum implements MatchableEnum {
+    WORDS,
+    SWORD_FISH,
+  }
+
+  @Test
+  public void shouldTolerateTyposAndPreferExactMatches() {
+    var matcher = new EnumMatcher<>(MaterialEnum.values(), true);
+
+    assertEquals(List.of(), matcher.createCompletions("diamnd-swrod"));
+
+    matcher.setMaximumEditDistance(2);
+
+    assertEquals(List.of("Diamond-Sword"), matcher.createCompletions("diamnd-swrod"));
+    assertEquals(List.of("Cobblestone", "Mossy-Cobblestone"), matcher.createCompletions("coblestone"));
+
+    // "Diamond-Sword" only matches approximately by its "rd"
+    assertEquals(List.of("Red-Wool", "Diamond-Sword", "Red-Sandstone", "Enchanted-Golden-Apple"), matcher.createCompletions("red"));
+    assertEquals(List.of("Red-Wool", "Red-Sandstone", "Diamond-Sword", "Enchanted-Golden-Apple"), matcher.createRankedCompletions("red", 4));
+
+    // The index prunes by pieces of syllables, which must not lose any approximate matches
+    var unindexedMatcher = new EnumMatcher<>(MaterialEnum.values());
+    unindexedMatcher.setMaximumEditDistance(2);
+
+    for (var input : MATERIAL_INPUTS)
+      assertEquals(unindexedMatcher.createCompletions(input), matcher.createCompletions(input), "Input: " + input);
+
+    for (var input : new String[] { "diamnd-swrod", "coblestone", "golen-aple", "axolotol", "sansdtone", "hangng" })
+      assertEquals(unindexedMatcher.createCompletions(input), matcher.createCompletions(input), "Input: " + input);
+
+    var typoMatcher = new EnumMatcher<>(TypoEnum.values());
+    typoMatcher.setMaximumEditDistance(1);
+
+    assertEquals(List.of("Words", "Sword-Fish"), typoMatcher.createCompletions("sword"));
+    assertEquals(TypoEnum.SWORD_FISH, Objects.requireNonNull(typoMatcher.matchFirst("sword")).constant);
+    assertEquals(TypoEnum.WORDS, Objects.requireNonNull(typoMatcher.matchFirst("wrds")).constant);
+  }
+
+  @Test
+  public void shouldCacheCompletions() {
+    var uncachedMatcher = new EnumMatcher<>(MaterialEnum.values());
+    var cachedMatcher = new EnumMatcher<>(MaterialEnum.values());
+
+    assertNull(cachedMatcher.getCompletionCacheStatistics());
+
+    cachedMatcher.enableCompletionCache(4);
+
+    for (var iteration = 0; iteration < 2; ++iteration) {
+      for (var input : new String[] { "dia", "DIA", "Día", "gol" })
+        assertEquals(uncachedMatcher.createCompletions(input), cachedMatcher.createCompletions(input));
+    }
+
+    // "dia", "DIA" and "Día" normalize to the very same key
+    assertEquals(new CompletionCacheStatistics(6, 2, 2), cachedMatcher.getCompletionCacheStatistics());
+
+    EnumPredicate<MaterialEnum> noAxesFilter = constant -> !constant.getNormalizedName().endsWith("Axe");
+
+    assertEquals(
+      uncachedMatcher.createCompletions("dia", noAxesFilter, "/", null),
+      cachedMatcher.createCompletions("dia", noAxesFilter, "/", null)
+    );
+
+    assertEquals(new CompletionCacheStatistics(6, 3, 3), cachedMatcher.getCompletionCacheStatistics());
+
+    for (var input : new String[] { "a", "b", "c" })
+      cachedMatcher.createCompletions(input);
+
+    assertEquals(new CompletionCacheStatistics(6, 6, 4), cachedMatcher.getCompletionCacheStatistics());
+  }
+
+  @Test
+  public void shouldRecordMetricsOfQueries() {
+    var matcher = new EnumMatcher<>(TestEnum.values());
+    var recorder = matcher.enableMetrics();
+
+    assertEquals(List.of("First-Constant"), matcher.createCompletions("fir"));
+    assertNull(matcher.matchFirst("nothing"));
+
+    // Listings without input are not recorded
+    matcher.createCompletions(null);
+
+    var snapshot = recorder.snapshot();
+
+    assertEquals(2, snapshot.queries());
+    assertEquals(TestEnum.values().length * 2L, snapshot.candidates());
+    assertEquals(1, snapshot.matches());
+    assertTrue(snapshot.indexOfInvocations() > 0);
+    assertEquals(2, Arrays.stream(snapshot.latencyHistogram()).sum());
+
+    matcher.disableMetrics();
+    matcher.matchFirst("fir");
+
+    assertEquals(2, recorder.snapshot().queries());
+
+    recorder.reset();
+
+    assertEquals(0, recorder.snapshot().queries());
+    assertEquals(0, Arrays.stream(recorder.snapshot().latencyHistogram()).sum());
+  }
+
+  @Test
+  public void shouldInvalidateCachedCompletionsOnRename() {
+    var matcher = new EnumMatcher<>(MaterialEnum.values());
+    matcher.enableCompletionCache(16);
+
+    assertEquals(List.of("Red-Wool"), matcher.createCompletions("wool"));
+
+    matcher.getNormalizedConstant(MaterialEnum.RED_WOOL).setName("Rote_Wolle");
+
+    assertEquals(List.of(), matcher.createCompletions("wool"));
+    assertEquals(List.of("Rote-Wolle"), matcher.createCompletions("wol"));
+  }
+
+  @Test
+  public void shouldNarrowDownIncrementallyWithinSession() {
+    var matcher = new EnumMatcher<>(MaterialEnum.values(), true);
+    var session = matcher.createCompletionSession();
+
+    var keystrokes = new String[] {
+      null, "", "d", "di", "dia", "dia-", "dia-a", "dia-ax", "dia-a", "dia", "dia-!", "dia-!s", "dia-!sw",
+      "g", "go", "gol", "gol-", "gol-a", "gol-ap", "gol-app-en", "o", "oa", "oak", "oak-s", "oak-sign", "oak-sign-",
+      "oak-sign-?", "oak-sign-?x", "oak-sign-?", "s", "st", "sto", "x",
+    };
+
+    for (var keystroke : keystrokes)
+      assertEquals(matcher.createCompletions(keystroke), session.createCompletions(keystroke), "Input: " + keystroke);
+
+    assertEquals(List.of("Sandstone", "Red-Sandstone"), session.createCompletions("sand"));
+
+    matcher.getNormalizedConstant(MaterialEnum.RED_WOOL).setName("Red_Sandy_Wool");
+
+    var completionsAfterRename = session.createCompletions("sand");
+
+    assertEquals(matcher.createCompletions("sand"), completionsAfterRename);
+    assertTrue(completionsAfterRename.contains("Red-Sandy-Wool"));
+  }
+
+  @Test
+  public void shouldApplyFilterWithinSession() {
+    var matcher = new EnumMatcher<>(MaterialEnum.values());
+    EnumPredicate<MaterialEnum> noSignsFilter = constant -> !constant.getNormalizedName().endsWith("Sign");
+
+    var session = matcher.createCompletionSession(noSignsFilter);
+
+    for (var keystroke : new String[] { "o", "oa", "oak", "oak-h", "oak" })
+      assertEquals(matcher.createCompletions(keystroke, noSignsFilter), session.createCompletions(keystroke), "Input: " + keystroke);
+  }
+
+  @Test
+  public void shouldRankCompletionsAndLimitToTopOnes() {
+    var matcher = new EnumMatcher<>(MaterialEnum.values());
+
+    // Exact syllable-matches first, then syllable-prefix matches with the fewest leftovers, then in default order
+    assertEquals(List.of("A", "Ab", "Golden-Axe", "Golden-Apple"), matcher.createRankedCompletions("a", 4));
+    assertEquals(List.of("Stone", "Sandstone"), matcher.createRankedCompletions("sto", 2));
+    assertEquals(List.of("Diamond-Axe", "Diamond-Pickaxe"), matcher.createRankedCompletions("dia-ax", 5));
+
+    assertEquals(matcher.createCompletions(null).subList(0, 3), matcher.createRankedCompletions(null, 3));
+    assertEquals(List.of(), matcher.createRankedCompletions("a", 0));
+
+    for (var input : MATERIAL_INPUTS) {
+      var completions = matcher.createCompletions(input);
+      var rankedCompletions = matcher.createRankedCompletions(input, null, "/", null, Integer.MAX_VALUE);
+
+      assertEquals(completions.size(), rankedCompletions.size(), "Input: " + input);
+      assertTrue(rankedCompletions.stream().allMatch(completion -> completions.contains(completion.substring(1))), "Input: " + input);
+    }
+  }
+
+  @Test
+  public void shouldApplyWildcards() {
+    var matcher = new EnumMatcher<>(MaterialEnum.values());
+
+    assertEquals(matcher.createCompletions("dia"), matcher.createCompletions("dia-*"));
+    assertEquals(List.of("Oak-Sign", "Dark-Oak-Sign", "Oak-Hanging-Sign"), matcher.createCompletions("sign-?"));
+    assertEquals(List.of("Dark-Oak-Sign", "Oak-Hanging-Sign"), matcher.createCompletions("oak-sign-?"));
+    assertEquals(List.of("Red-Sandstone", "Mossy-Cobblestone"), matcher.createCompletions("stone-?"));
+    assertEquals(List.of(), matcher.createCompletions("stone-?-?"));
+
+    var multiSyllableCompletions = matcher.createCompletions("?-?");
+
+    assertEquals(
+      Arrays.stream(MaterialEnum.values()).filter(constant -> constant.name().indexOf('_') >= 0).count(),
+      multiSyllableCompletions.size()
+    );
+  }
+
   private List<String> sortedStrings(String... values) {
     return Arrays.stream(values).sorted(
       Comparator
@@ -2,12 +2,20 @@ package me.blvckbytes.syllables_matcher;
 
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.nio.file.Path;
+import java.text.Normalizer;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -66,6 +74,57 @@ public class SyllableTests {
     );
   }
 
+  @Test
+  public void shouldFreezeIntoTrimmedImmutableCopy() {
+    var syllables = Syllables.forString("Diamond-Sword", Syllables.DELIMITER_SEARCH_PATTERN);
+    var frozenSyllables = syllables.freeze();
+
+    assertFalse(syllables.isFrozen());
+    assertTrue(frozenSyllables.isFrozen());
+    assertSame(frozenSyllables, frozenSyllables.freeze());
+
+    assertEquals(2, frozenSyllables.size());
+    assertEquals(2, frozenSyllables.capacity());
+    assertEquals(syllables.container, frozenSyllables.container);
+
+    for (var syllableIndex = 0; syllableIndex < syllables.size(); ++syllableIndex)
+      assertEquals(syllables.getSyllable(syllableIndex), frozenSyllables.getSyllable(syllableIndex));
+
+    assertThrows(IllegalStateException.class, () -> frozenSyllables.add(0, 1, false));
+    assertThrows(IllegalStateException.class, frozenSyllables::clear);
+
+    var matcher = setupMatcher("Diamond-Sword", "dia-swo", WildcardMode.NONE, Syllables.DELIMITER_SEARCH_PATTERN);
+    assertFalse(matcher.hasUnmatchedQuerySyllables());
+
+    matcher.setTarget(frozenSyllables);
+    matcher.resetQueryMatches();
+    matcher.match();
+    assertFalse(matcher.hasUnmatchedQuerySyllables());
+  }
+
+  @Test
+  public void shouldComputeCharacterSignaturesWhileParsing() {
+    var syllables = Syllables.forString("Dia-!oak-Sword", Syllables.DELIMITER_SEARCH_PATTERN);
+
+    assertEquals((1L << 'd') | (1L << 'i') | (1L << 'a'), syllables.getSignature(0));
+    assertEquals(Syllables.computeSignature("oak", 0, 2), syllables.getSignature(1));
+    assertEquals(Syllables.computeSignature(syllables.container, 9, 13), syllables.getSignature(2));
+    assertEquals(syllables.getSignature(2), syllables.freeze().getSignature(2));
+
+    assertEquals(Syllables.UNKNOWN_SIGNATURE, new Syllables(null).add(0, 1, false).getSignature(0));
+
+    // Rejecting by signatures must never turn a match into a mismatch, e.g. on color-sequences
+    var matcher = setupMatcher("§cDia§amond-Sw§lord", "dia-ond-sword", WildcardMode.NONE, Syllables.DELIMITER_SEARCH_PATTERN);
+    assertFalse(matcher.hasUnmatchedQuerySyllables());
+
+    // Manually added query-syllables have no signature, thus they must not be rejected by any target's
+    matcher = new SyllablesMatcher();
+    matcher.setQuery(new Syllables("abc").add(0, 2, false));
+    matcher.setTarget(Syllables.forString("xabcx", ' '));
+    matcher.match();
+    assertFalse(matcher.hasUnmatchedQuerySyllables());
+  }
+
   @Test
   public void shouldHandleMultipleTargetsWithoutQueryMatchesResetting() {
     var querySyllables = Syllables.forString("dia-bot-car-ir-gol", Syllables.DELIMITER_SEARCH_PATTERN);
@@ -158,6 +217,28 @@ public class SyllableTests {
     assertEquals(targetWithoutSprinkles + "-o-ond-d", remainingTargetSyllables);
   }
 
+  @Test
+  public void shouldExhaustTargetsSpanningWholeFlagWords() {
+    for (var numberOfSyllables : new int[] { 63, 64, 65, 128 }) {
+      var joiner = new StringJoiner("-");
+
+      for (var index = 0; index < numberOfSyllables; ++index)
+        joiner.add("s" + index + "x");
+
+      var syllables = Syllables.forString(joiner.toString(), Syllables.DELIMITER_SEARCH_PATTERN);
+
+      var matcher = new SyllablesMatcher();
+      matcher.setQuery(syllables);
+      matcher.setTarget(syllables);
+
+      assertEquals(numberOfSyllables, matcher.match());
+      assertFalse(matcher.hasUnmatchedQuerySyllables());
+      assertFalse(matcher.hasUnmatchedTargetSyllables());
+      assertUnmatchedSyllablesInAnyOrder(matcher, true, EMPTY_SYLLABLES);
+      assertUnmatchedSyllablesInAnyOrder(matcher, false, EMPTY_SYLLABLES);
+    }
+  }
+
   @Test
   public void shouldHandleMultipleQueries() {
     var targetSyllables = Syllables.forString("one-two-three-four", Syllables.DELIMITER_SEARCH_PATTERN);
@@ -263,6 +344,349 @@ public class SyllableTests {
     assertTrue(matcher.hasUnmatchedTargetSyllables());
   }
 
+  @Test
+  public void shouldMatchQueryAgainstManyTargets() {
+    var targets = new Syllables[] {
+      Syllables.forString("diamond-sword", Syllables.DELIMITER_SEARCH_PATTERN),
+      Syllables.forString("iron-sword", Syllables.DELIMITER_SEARCH_PATTERN),
+      Syllables.forString("§bDiamond-§lSword", Syllables.DELIMITER_SEARCH_PATTERN),
+      Syllables.forString("diamond-pickaxe", Syllables.DELIMITER_SEARCH_PATTERN),
+      Syllables.forString("swordfish-diamond", Syllables.DELIMITER_SEARCH_PATTERN),
+      Syllables.forString("Épée-diamant", Syllables.DELIMITER_SEARCH_PATTERN),
+    };
+
+    var matcher = new SyllablesMatcher();
+    var query = Syllables.forString("dia-swo", Syllables.DELIMITER_SEARCH_PATTERN);
+
+    assertEquals(BitSet.valueOf(new long[] { 0b10101 }), matcher.matchTargets(query, targets, 0));
+    assertEquals(BitSet.valueOf(new long[] { 0b101 }), matcher.matchTargets(query, targets, 2));
+    assertEquals(BitSet.valueOf(new long[] { 0b10101 }), matcher.matchTargets(query, List.of(targets), 5));
+
+    var negatedQuery = Syllables.forString("dia-!swo", Syllables.DELIMITER_SEARCH_PATTERN);
+
+    assertEquals(BitSet.valueOf(new long[] { 0b101000 }), matcher.matchTargets(negatedQuery, targets, 0));
+    assertEquals(new BitSet(), matcher.matchTargets(query, new Syllables[0], 0));
+  }
+
+  @Test
+  public void shouldMatchManyTargetsInParallelPreservingOrder() {
+    var random = new Random(12);
+    var words = new String[] { "diamond", "sword", "iron", "§aGold", "Épée", "pickaxe", "oak", "sign" };
+    var targets = new ArrayList<Syllables>();
+
+    for (var targetIndex = 0; targetIndex < 10_000; ++targetIndex) {
+      var target = new StringBuilder();
+
+      for (var wordIndex = random.nextInt(1, 4); wordIndex > 0; --wordIndex)
+        target.append(words[random.nextInt(words.length)]).append('-');
+
+      targets.add(Syllables.forString(target.toString(), Syllables.DELIMITER_SEARCH_PATTERN));
+    }
+
+    var pool = new ForkJoinPool(4);
+
+    try {
+      var parallelMatcher = new ParallelSyllablesMatcher(pool, 4, 1000);
+
+      for (var input : new String[] { "dia-swo", "gol", "epe-!sign", "x" }) {
+        var query = Syllables.forString(input, Syllables.DELIMITER_SEARCH_PATTERN);
+        var expected = new SyllablesMatcher().matchTargets(query, targets, 0);
+
+        assertEquals(expected, parallelMatcher.matchTargets(query, targets), "Input: " + input);
+        assertEquals(expected, parallelMatcher.matchTargets(query, targets.toArray(Syllables[]::new)), "Input: " + input);
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void shouldMatchManyQueriesLikeIndividualMatchers() {
+    var random = new Random(13);
+    var words = new String[] { "diamond", "sword", "swordfish", "iron", "§aGold", "§x§F§F§0§0§0§0Épée", "pickaxe", "oak", "sign", "ndsw" };
+    var fragments = new String[] { "dia", "mond", "sword", "swo", "fish", "ir", "gold", "epe", "pick", "axe", "a", "o", "ds", "ndsw", "x", "", "" };
+    var queries = new ArrayList<Syllables>();
+
+    for (var queryIndex = 0; queryIndex < 300; ++queryIndex) {
+      var query = new StringBuilder();
+
+      for (var fragmentIndex = random.nextInt(0, 4); fragmentIndex > 0; --fragmentIndex) {
+        if (random.nextInt(4) == 0)
+          query.append('!');
+
+        var fragment = fragments[random.nextInt(fragments.length)];
+
+        // Also have plenty of distinct syllables which are unlikely to occur
+        if (fragment.isEmpty())
+          fragment = generateRandomSyllable().toLowerCase();
+
+        query.append(fragment).append('-');
+      }
+
+      queries.add(Syllables.forString(query.toString(), Syllables.DELIMITER_SEARCH_PATTERN));
+    }
+
+    var multiQueryMatcher = new MultiQueryMatcher(queries);
+    var singleQueryMatcher = new SyllablesMatcher();
+
+    for (var targetIndex = 0; targetIndex < 500; ++targetIndex) {
+      var target = new StringBuilder();
+
+      for (var wordIndex = random.nextInt(1, 6); wordIndex > 0; --wordIndex) {
+        target.append(words[random.nextInt(words.length)]);
+
+        // Also join words without a delimiter, as to have patterns span former word-boundaries
+        if (random.nextInt(3) != 0)
+          target.append(' ');
+      }
+
+      var targetSyllables = Syllables.forString(target.toString(), Syllables.DELIMITER_FREE_TEXT);
+      var expected = new BitSet();
+
+      for (var queryIndex = 0; queryIndex < queries.size(); ++queryIndex) {
+        singleQueryMatcher.setQuery(queries.get(queryIndex));
+
+        if (singleQueryMatcher.doesQueryFullyMatch(targetSyllables))
+          expected.set(queryIndex);
+      }
+
+      assertEquals(expected, multiQueryMatcher.match(targetSyllables), "Target: " + target);
+    }
+  }
+
+  @Test
+  public void shouldMatchOffHeapEntriesLikeTargets() {
+    var random = new Random(19);
+    var words = new String[] { "Diamond", "Sword", "§aGold", "§x§F§F§0§0§0§0Épée", "Oak", "Sign", "Pick§laxe", "Chest" };
+
+    var corpus = new OffHeapCorpus();
+    var targets = new ArrayList<Syllables>();
+
+    // Enough entries to have the corpus grow multiple times
+    for (var entryIndex = 0; entryIndex < 1000; ++entryIndex) {
+      var name = new StringJoiner(" ");
+
+      for (var wordIndex = random.nextInt(1, 4); wordIndex > 0; --wordIndex)
+        name.add(words[random.nextInt(words.length)]);
+
+      assertEquals(entryIndex, corpus.add(name.toString(), Syllables.DELIMITER_FREE_TEXT));
+      targets.add(Syllables.forString(name.toString(), Syllables.DELIMITER_FREE_TEXT));
+    }
+
+    assertEquals(targets.size(), corpus.size());
+    assertEquals(targets.get(42).container, corpus.getContainer(42));
+
+    var corpusMatcher = new OffHeapCorpusMatcher(corpus);
+    var targetsMatcher = new SyllablesMatcher();
+
+    for (var query : new String[] { "dia", "gold-swo", "epe", "!oak-sign", "ickaxe", "gold-gold", "xyz" }) {
+      var querySyllables = Syllables.forString(query, Syllables.DELIMITER_SEARCH_PATTERN);
+      var expected = targetsMatcher.matchTargets(querySyllables, targets, 0);
+
+      assertEquals(expected, corpusMatcher.matchEntries(querySyllables, 0), "Query: " + query);
+      assertEquals(expected.get(7), corpusMatcher.matches(querySyllables, 7));
+    }
+
+    assertThrows(IllegalArgumentException.class, () -> corpus.add("a".repeat(40_000), Syllables.DELIMITER_FREE_TEXT));
+  }
+
+  @Test
+  public void shouldLoadSavedCorporaByMapping(@TempDir Path directory) throws Exception {
+    var path = directory.resolve("corpus.bin");
+    var names = List.of("Diamond Sword", "§aGolden Apple", "Épée", "Oak Sign", "Dark Oak Sign");
+    var sourceHash = OffHeapCorpus.computeSourceHash(names, Syllables.DELIMITER_FREE_TEXT);
+
+    assertNull(OffHeapCorpus.load(path, sourceHash));
+
+    var corpus = new OffHeapCorpus();
+
+    for (var name : names)
+      corpus.add(name, Syllables.DELIMITER_FREE_TEXT);
+
+    corpus.save(path, sourceHash);
+
+    assertNull(OffHeapCorpus.load(path, OffHeapCorpus.computeSourceHash(names.subList(1, names.size()), Syllables.DELIMITER_FREE_TEXT)));
+
+    var loadedCorpus = OffHeapCorpus.load(path, sourceHash);
+    assertNotNull(loadedCorpus);
+    assertEquals(corpus.size(), loadedCorpus.size());
+
+    for (var query : new String[] { "oak-sign", "app", "epe", "!dark-sign", "swo-dia" }) {
+      var querySyllables = Syllables.forString(query, Syllables.DELIMITER_SEARCH_PATTERN);
+
+      assertEquals(
+        new OffHeapCorpusMatcher(corpus).matchEntries(querySyllables, 0),
+        new OffHeapCorpusMatcher(loadedCorpus).matchEntries(querySyllables, 0),
+        "Query: " + query
+      );
+    }
+
+    // Adding to a mapped corpus moves it into direct memory first
+    assertEquals(names.size(), loadedCorpus.add("Stone Sword", Syllables.DELIMITER_FREE_TEXT));
+    assertEquals("stone sword", loadedCorpus.getContainer(names.size()));
+    assertEquals("§agolden apple", loadedCorpus.getContainer(1));
+  }
+
+  @Test
+  public void shouldScanLikeScalarKernelWhenVectorized() {
+    // Only skipped on runtimes without the Vector API, as the kernel is packaged and must load otherwise
+    Assumptions.assumeTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent(), "The Vector API is not available on this runtime");
+
+    var vectorKernel = CharScanKernel.tryLoadVectorKernel();
+    assertNotNull(vectorKernel, "The vectorized kernel has not been packaged");
+
+    var random = new Random(17);
+
+    // A tiny alphabet makes for plenty of candidates which only mismatch in between their first and last character
+    for (var iteration = 0; iteration < 20_000; ++iteration) {
+      var haystack = new char[random.nextInt(1, 200)];
+
+      for (var index = 0; index < haystack.length; ++index)
+        haystack[index] = (char) ('a' + random.nextInt(3));
+
+      var fromIndex = random.nextInt(haystack.length);
+      var toIndex = random.nextInt(fromIndex, haystack.length + 1);
+      var needleLength = random.nextInt(1, 8);
+
+      // Needles are mostly taken from the haystack itself, as to also have plenty of hits
+      var needle = new char[needleLength + 2];
+
+      if (random.nextBoolean() && toIndex - fromIndex >= needleLength)
+        System.arraycopy(haystack, random.nextInt(fromIndex, toIndex - needleLength + 1), needle, 1, needleLength);
+      else {
+        for (var index = 1; index <= needleLength; ++index)
+          needle[index] = (char) ('a' + random.nextInt(3));
+      }
+
+      assertEquals(
+        ScalarCharScanKernel.INSTANCE.indexOf(haystack, fromIndex, toIndex, needle, 1, needleLength),
+        vectorKernel.indexOf(haystack, fromIndex, toIndex, needle, 1, needleLength)
+      );
+    }
+
+    var scalarMatcher = new SyllablesMatcher(ScalarCharScanKernel.INSTANCE);
+    var vectorMatcher = new SyllablesMatcher(vectorKernel);
+
+    for (var iteration = 0; iteration < 200; ++iteration) {
+      var words = new ArrayList<String>();
+      var target = new StringJoiner(" ");
+
+      for (var wordIndex = 0; wordIndex < 40; ++wordIndex) {
+        var word = generateRandomSyllable();
+        words.add(word);
+
+        // Color-sequences make the view differ from the container
+        var colorIndex = random.nextInt(word.length() + 1);
+
+        if (random.nextInt(4) == 0)
+          word = word.substring(0, colorIndex) + "§" + "0123456789abcdefklmnor".charAt(random.nextInt(22)) + word.substring(colorIndex);
+
+        target.add(word);
+      }
+
+      var query = new StringJoiner(" ");
+
+      for (var syllableIndex = random.nextInt(1, 8); syllableIndex > 0; --syllableIndex) {
+        var word = words.get(random.nextInt(words.size()));
+        var begin = random.nextInt(word.length());
+        query.add(word.substring(begin, random.nextInt(begin + 1, word.length() + 1)));
+      }
+
+      var targetSyllables = Syllables.forString(target.toString(), Syllables.DELIMITER_FREE_TEXT);
+      var querySyllables = Syllables.forString(query.toString(), Syllables.DELIMITER_FREE_TEXT);
+
+      for (var matcher : List.of(scalarMatcher, vectorMatcher)) {
+        matcher.setTarget(targetSyllables);
+        matcher.setQuery(querySyllables);
+        matcher.match();
+      }
+
+      assertEquals(scalarMatcher.computeMatchScore(), vectorMatcher.computeMatchScore());
+      assertEquals(collectUnmatched(scalarMatcher, true), collectUnmatched(vectorMatcher, true));
+      assertEquals(collectUnmatched(scalarMatcher, false), collectUnmatched(vectorMatcher, false));
+    }
+  }
+
+  @Test
+  public void shouldMatchWithinMaximumEditDistance() {
+    var matcher = new SyllablesMatcher();
+
+    matcher.setQuery(Syllables.forString("diamnd-swrod", Syllables.DELIMITER_SEARCH_PATTERN));
+    matcher.setTarget(Syllables.forString("§6diam§cond-sword", Syllables.DELIMITER_SEARCH_PATTERN));
+    matcher.match();
+
+    assertTrue(matcher.hasUnmatchedQuerySyllables());
+
+    matcher.setMaximumEditDistance(2);
+    matcher.resetQueryMatches();
+    matcher.resetTargetMatches();
+    matcher.match();
+
+    assertFalse(matcher.hasUnmatchedQuerySyllables());
+    assertFalse(matcher.hasUnmatchedTargetSyllables());
+    assertEquals(2, matcher.getNumberOfFuzzyMatches());
+
+    // Approximate occurrences still leave remainders
+    matcher.setQuery(Syllables.forString("dimond", Syllables.DELIMITER_SEARCH_PATTERN));
+    matcher.setTarget(Syllables.forString("diamondsword", Syllables.DELIMITER_SEARCH_PATTERN));
+    matcher.match();
+
+    assertFalse(matcher.hasUnmatchedQuerySyllables());
+    assertUnmatchedSyllablesInAnyOrder(matcher, false, new Syllables(null).add(7, 11, false));
+
+    // Exact occurrences take precedence, and short syllables are not allowed any edits
+    matcher.setQuery(Syllables.forString("sword-ax", Syllables.DELIMITER_SEARCH_PATTERN));
+    matcher.setTarget(Syllables.forString("swrd-sword-bx", Syllables.DELIMITER_SEARCH_PATTERN));
+    matcher.match();
+
+    assertUnmatchedSyllablesInAnyOrder(matcher, true, new Syllables(null).add(6, 7, false));
+    assertUnmatchedSyllablesInAnyOrder(matcher, false, new Syllables(null).add(0, 3, false).add(11, 12, false));
+    assertEquals(0, matcher.getNumberOfFuzzyMatches());
+  }
+
+  @Test
+  public void shouldShareTargetViewAcrossQueries() {
+    var target = Syllables.forString("§aSome §bcolored§r chat", Syllables.DELIMITER_FREE_TEXT).freeze();
+    var targetView = target.getTargetView();
+
+    assertEquals("some colored chat", new String(targetView.chars, 0, targetView.length));
+
+    var matcher = new SyllablesMatcher();
+    var otherMatcher = new SyllablesMatcher();
+
+    // The trailing reset of "colored" is a mere color-sequence, thus it does not remain
+    matcher.setQuery(Syllables.forString("colored", Syllables.DELIMITER_FREE_TEXT));
+    matcher.setTarget(target);
+    matcher.match();
+
+    assertUnmatchedSyllablesInAnyOrder(matcher, false, new Syllables(null).add(0, 5, false).add(19, 22, false));
+
+    otherMatcher.setQuery(Syllables.forString("lore chat", Syllables.DELIMITER_FREE_TEXT));
+    otherMatcher.setTarget(target);
+    otherMatcher.match();
+
+    assertFalse(otherMatcher.hasUnmatchedQuerySyllables());
+    assertUnmatchedSyllablesInAnyOrder(otherMatcher, false, new Syllables(null).add(0, 5, false).add(7, 10, false).add(15, 17, false));
+
+    assertSame(targetView, target.getTargetView());
+
+    // Uncolored and mutable targets retain no view, but are viewed within the matcher's scratch-space
+    assertNull(Syllables.forString("some plain chat", Syllables.DELIMITER_FREE_TEXT).freeze().getTargetView());
+
+    var reusedTarget = new Syllables(null);
+
+    for (var message : new String[] { "§cSome §lcolored chat", "plain chat", "§alore§r of chat" }) {
+      Syllables.forCharSequence(message, Syllables.DELIMITER_FREE_TEXT, reusedTarget);
+      assertNull(reusedTarget.getTargetView());
+
+      otherMatcher.resetQueryMatches();
+      otherMatcher.setTarget(reusedTarget);
+      otherMatcher.match();
+
+      assertEquals(message.equals("plain chat"), otherMatcher.hasUnmatchedQuerySyllables(), "Message: " + message);
+    }
+  }
+
   @Test
   public void shouldHandlePositiveMatches() {
     makeUnmatchedCase(
@@ -446,6 +870,48 @@ public class SyllableTests {
     assertEquals(2, afterCounter.get());
   }
 
+  @Test
+  public void shouldMatchAfterPartialMatchAcrossColorSequence() {
+    // Offset zero partially matches "aa" across the sequence, while the match starts at offset one
+    makeUnmatchedCase(
+      "aa§cab", "aab", WildcardMode.NONE,
+      new Syllables(null)
+        .add(0, 0, false),
+      EMPTY_SYLLABLES
+    );
+
+    makeUnmatchedCase(
+      "x§ay-§b§cz", "y-z", WildcardMode.NONE,
+      new Syllables(null)
+        .add(0, 0, false),
+      EMPTY_SYLLABLES
+    );
+  }
+
+  @Test
+  public void shouldDeviateFromWalkingKernelOnlyAroundColorSequences() {
+    // The walking kernel left the sequence within the preceding remainder, i.e. 0:3, as it had been
+    // consumed by a failed attempt at offset one; matches now consistently span preceding sequences
+    makeUnmatchedCase(
+      "cb§xbax", "ba-a", WildcardMode.NONE,
+      new Syllables(null)
+        .add(0, 1, false)
+        .add(6, 6, false),
+      new Syllables(null)
+        .add(3, 3, false)
+    );
+
+    // The walking kernel resumed within the sequence after a failed attempt, matching its code as
+    // content; codes are now never part of the content
+    makeUnmatchedCase(
+      "ba§babb", "bab", WildcardMode.NONE,
+      new Syllables(null)
+        .add(0, 6, false),
+      new Syllables(null)
+        .add(0, 2, false)
+    );
+  }
+
   @Test
   public void shouldIgnoreConsecutiveHexColorSequences() {
     var coloredString = "§x§F§F§0§0§0§0§x§0§0§F§F§0§0§x§0§0§0§0§F§FHello-world";
@@ -530,6 +996,144 @@ public class SyllableTests {
     assertFalse(matcher.hasUnmatchedQuerySyllables());
   }
 
+  @Test
+  public void shouldNormalizeLikeNormalizerOnAnyInput() {
+    for (var c = 0; c <= 0x2FF; ++c) {
+      var input = "Ab" + (char) c + "Z";
+      assertEquals(normalizeByNormalizer(input), new Syllables(input).container, "Char: " + c);
+    }
+
+    var random = new Random(3);
+
+    for (var iteration = 0; iteration < 1000; ++iteration) {
+      var input = new StringBuilder();
+
+      for (var length = random.nextInt(16); length > 0; --length)
+        input.append((char) (random.nextInt(4) == 0 ? random.nextInt(0x100, 0x400) : random.nextInt(0x100)));
+
+      assertEquals(normalizeByNormalizer(input.toString()), new Syllables(input.toString()).container);
+    }
+  }
+
+  @Test
+  public void shouldNotCopyAlreadyNormalizedInput() {
+    var input = "diamond-sword";
+    assertSame(input, new Syllables(input).container);
+  }
+
+  @Test
+  public void shouldParseCharSequencesIntoReusedInstance() {
+    var input = "§bÉpée--en-!Nethérite ";
+    var expected = Syllables.forString(input, Syllables.DELIMITER_SEARCH_PATTERN);
+    var result = new Syllables(null);
+
+    Syllables.forCharSequence(new StringBuilder(input), Syllables.DELIMITER_SEARCH_PATTERN, result);
+    assertSyllablesEqual(expected, result);
+
+    var inputChars = ("xx" + input + "yy").toCharArray();
+    Syllables.forCharArray(inputChars, 2, input.length(), Syllables.DELIMITER_SEARCH_PATTERN, result);
+    assertSyllablesEqual(expected, result);
+
+    Syllables.forCharSequence("diamond-sword", Syllables.DELIMITER_SEARCH_PATTERN, result);
+    assertEquals("diamond-sword", result.container);
+    assertEquals(2, result.size());
+  }
+
+  @Test
+  public void shouldIndexIntoNormalizedContainer() {
+    // Hangul syllables decompose into multiple jamo, thus shifting all subsequent indices
+    var syllables = Syllables.forString("한-Sword", Syllables.DELIMITER_SEARCH_PATTERN);
+    var lastSyllable = syllables.getSyllable(1);
+
+    assertEquals("sword", syllables.container.substring(Syllables.getStartIndex(lastSyllable), Syllables.getEndIndex(lastSyllable) + 1));
+  }
+
+  @Test
+  public void shouldGrowParseBufferForExpandingRunsFollowedByLatin1() {
+    var input = "안녕하세요 hello everyone, how are you doing today?";
+    var syllables = Syllables.forString(input, ' ');
+
+    assertEquals(Normalizer.normalize(input, Normalizer.Form.NFD).toLowerCase(), syllables.container);
+    assertEquals(8, syllables.size());
+
+    var reusedResult = new Syllables(null);
+    Syllables.forCharSequence(new StringBuilder(input), ' ', reusedResult);
+
+    assertEquals(syllables.container, reusedResult.container);
+    assertEquals(syllables.size(), reusedResult.size());
+  }
+
+  @Test
+  public void shouldSwitchToWideEncodingOnLongContainers() {
+    var shortSyllables = Syllables.forString("Diamond-Sword", Syllables.DELIMITER_SEARCH_PATTERN);
+    assertFalse(shortSyllables.isWide());
+
+    var input = "filler ".repeat(6000) + "§bDiamond§lSword";
+    var target = Syllables.forString(input, Syllables.DELIMITER_FREE_TEXT).freeze();
+
+    assertTrue(target.isWide());
+    assertEquals(6001, target.size());
+
+    var lastSyllable = target.getSyllable(target.size() - 1);
+    assertEquals("§bdiamond§lsword", target.container.substring(target.getStartIndexOf(lastSyllable), target.getEndIndexOf(lastSyllable) + 1));
+
+    var matcher = new SyllablesMatcher();
+    matcher.setQuery(Syllables.forString("mond sword", Syllables.DELIMITER_FREE_TEXT));
+    matcher.setTarget(target);
+    matcher.match();
+
+    assertFalse(matcher.hasUnmatchedQuerySyllables());
+
+    var unmatchedRemainders = new ArrayList<String>();
+
+    matcher.forEachUnmatchedTargetSyllable((holder, syllable) -> {
+      var syllableString = holder.container.substring(holder.getStartIndexOf(syllable), holder.getEndIndexOf(syllable) + 1);
+
+      if (!syllableString.equals("filler"))
+        unmatchedRemainders.add(syllableString);
+    });
+
+    assertEquals(List.of("§bdia"), unmatchedRemainders);
+
+    var reused = new Syllables(null);
+    Syllables.forCharSequence(input, Syllables.DELIMITER_FREE_TEXT, reused);
+    assertTrue(reused.isWide());
+
+    Syllables.forCharSequence("Diamond-Sword", Syllables.DELIMITER_SEARCH_PATTERN, reused);
+    assertFalse(reused.isWide());
+    assertEquals(shortSyllables.getSyllable(1), reused.getSyllable(1));
+  }
+
+  private List<Integer> collectUnmatched(SyllablesMatcher matcher, boolean query) {
+    var result = new ArrayList<Integer>();
+
+    if (query)
+      matcher.forEachUnmatchedQuerySyllable((holder, syllable) -> result.add(syllable));
+    else
+      matcher.forEachUnmatchedTargetSyllable((holder, syllable) -> result.add(syllable));
+
+    return result;
+  }
+
+  private void assertSyllablesEqual(Syllables expected, Syllables actual) {
+    assertEquals(expected.container, actual.container);
+    assertEquals(expected.size(), actual.size());
+
+    for (var syllableIndex = 0; syllableIndex < expected.size(); ++syllableIndex)
+      assertEquals(expected.getSyllable(syllableIndex), actual.getSyllable(syllableIndex));
+  }
+
+  private String normalizeByNormalizer(String input) {
+    var result = new StringBuilder();
+
+    for (var c : Normalizer.normalize(input, Normalizer.Form.NFD).toCharArray()) {
+      if (Character.getType(c) != Character.NON_SPACING_MARK)
+        result.append(Character.toLowerCase(c));
+    }
+
+    return result.toString();
+  }
+
   private String stripSprinkles(String input, String[] sprinkles) {
     var result = input;
 
@@ -674,7 +1278,7 @@ public class SyllableTests {
 
       result.append(
         holder.container
-          .substring(Syllables.getStartIndex(syllable), Syllables.getEndIndex(syllable) + 1)
+          .substring(holder.getStartIndexOf(syllable), holder.getEndIndexOf(syllable) + 1)
           .replace("-", "\\-") // Signal substring hyphens (contrast with delimiters)
       );
     }